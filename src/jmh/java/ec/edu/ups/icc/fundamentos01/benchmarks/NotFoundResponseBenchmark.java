@@ -0,0 +1,68 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exception.response.ErrorResponse;
+import ec.edu.ups.icc.fundamentos01.exception.response.ErrorTimestamps;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de una respuesta 404: lanzar NotFoundException desde una pila
+ * profunda (como la de Tomcat + Spring MVC), armar el ErrorResponse y
+ * serializarlo a JSON.
+ *
+ * before = stack trace capturado + LocalDateTime.now() en cada error (comportamiento anterior)
+ * after  = sin stack trace + timestamp cacheado por segundo
+ *
+ * Ejecutar con: gradle jmh -Pjmh.includes=NotFoundResponseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NotFoundResponseBenchmark {
+
+    @Param({"before", "after"})
+    public String mode;
+
+    // Profundidad aproximada de la pila al llegar a un servicio
+    @Param({"120"})
+    public int depth;
+
+    private boolean before;
+    private final ObjectMapper json = JsonMapper.builder().build();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        before = mode.equals("before");
+        ApplicationException.setCaptureStackTraces(before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ApplicationException.setCaptureStackTraces(false);
+    }
+
+    @Benchmark
+    public byte[] notFound() {
+        try {
+            findAt(depth);
+            throw new IllegalStateException("inalcanzable");
+        } catch (NotFoundException ex) {
+            LocalDateTime timestamp = before ? LocalDateTime.now() : ErrorTimestamps.now();
+            ErrorResponse body = new ErrorResponse(timestamp, ex.getStatus(), ex.getMessage(), "/api/products/999", null);
+            return json.writeValueAsBytes(body);
+        }
+    }
+
+    private static void findAt(int remaining) {
+        if (remaining == 0) {
+            throw new NotFoundException("Producto no encontrado con ID: 999");
+        }
+        findAt(remaining - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import ec.edu.ups.icc.fundamentos01.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de creación de usuarios limitado por el hash de la contraseña:
+ * 16 hilos (peticiones concurrentes) envían hashes al pool de PasswordHasher
+ * con distintos costos BCrypt.
+ *
+ * Ejecutar con: gradle jmh -Pjmh.includes=PasswordHashingBenchmark
+ * El resultado (ops/s) es el máximo de registros por segundo para cada costo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private PasswordHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Cola amplia: aquí se mide el costo del hash, no el rechazo por cola llena
+        hasher = new PasswordHasher(cost, 0, 1024, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public String createUserHash() {
+        return hasher.hash("password123").join();
+    }
+}
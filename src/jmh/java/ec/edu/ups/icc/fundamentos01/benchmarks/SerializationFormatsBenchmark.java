@@ -0,0 +1,109 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import ec.edu.ups.icc.fundamentos01.config.serialization.ProtobufHttpMessageConverter;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara tiempo de serialización y tamaño de payload de una lista de
+ * ProductResponseDto en JSON, CBOR, Smile y Protobuf.
+ *
+ * Ejecutar con: gradle jmh -Pjmh.includes=SerializationFormatsBenchmark
+ * Los tamaños en bytes se imprimen al inicio de cada trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationFormatsBenchmark {
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private List<ProductResponseDto> products;
+    private final Type listType = ResolvableType.forClassWithGenerics(List.class, ProductResponseDto.class).getType();
+
+    private final ObjectMapper json = JsonMapper.builder().build();
+    private final ObjectMapper cbor = CBORMapper.builder().build();
+    private final ObjectMapper smile = SmileMapper.builder().build();
+    private final ProtobufHttpMessageConverter protobuf = new ProtobufHttpMessageConverter();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        products = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            products.add(product(i));
+        }
+
+        System.out.printf("%n[size=%d] bytes json=%d cbor=%d smile=%d protobuf=%d%n",
+                size, json().length, cbor().length, smile().length, protobuf().length);
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return json.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] cbor() {
+        return cbor.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] smile() {
+        return smile.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] protobuf() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        protobuf.write(products, listType, ProtobufHttpMessageConverter.APPLICATION_PROTOBUF, new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+            @Override public OutputStream getBody() { return out; }
+            @Override public HttpHeaders getHeaders() { return headers; }
+        });
+        return out.toByteArray();
+    }
+
+    private static ProductResponseDto product(long id) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.id = id;
+        dto.name = "Producto " + id;
+        dto.price = 10.5 + id;
+        dto.description = "Descripción del producto número " + id;
+
+        dto.user = new ProductResponseDto.UserSummaryDto();
+        dto.user.id = id % 50;
+        dto.user.name = "Usuario " + dto.user.id;
+        dto.user.email = "usuario" + dto.user.id + "@email.com";
+
+        List<ProductResponseDto.CategorySummaryDto> categories = new ArrayList<>();
+        for (long c = 1; c <= 3; c++) {
+            ProductResponseDto.CategorySummaryDto category = new ProductResponseDto.CategorySummaryDto();
+            category.id = c;
+            category.name = "Categoría " + c;
+            category.description = "Descripción de la categoría " + c;
+            categories.add(category);
+        }
+        dto.categories = categories;
+        dto.category = categories.get(0);
+
+        dto.createdAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+        dto.updatedAt = LocalDateTime.of(2026, 1, 2, 10, 0);
+        return dto;
+    }
+}
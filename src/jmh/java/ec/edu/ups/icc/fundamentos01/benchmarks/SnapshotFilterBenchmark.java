@@ -0,0 +1,86 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.ProductSnapshot;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.SnapshotQuery;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro "precio entre 100 y 300 en la categoría 3 o 7" sobre todo el catálogo.
+ *
+ * objects  = recorrido secuencial de una lista de DTOs (objetos en el heap)
+ * snapshot = ProductSnapshot: columnas primitivas recorridas en paralelo (fork-join)
+ *
+ * Ejecutar con: gradle jmh -Pjmh.includes=SnapshotFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotFilterBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private static final int CATEGORIES = 20;
+    private static final int OWNERS = 1000;
+
+    private final List<ProductResponseDto> catalog = new ArrayList<>();
+    private ProductSnapshot snapshot;
+    private SnapshotQuery query;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        snapshot = new ProductSnapshot(null, null, null, new SimpleMeterRegistry());
+
+        for (long id = 1; id <= products; id++) {
+            ProductResponseDto dto = new ProductResponseDto();
+            dto.id = id;
+            dto.name = "Producto " + id;
+            dto.price = Math.round(random.nextDouble() * 100_000) / 100.0;
+            dto.user = new ProductResponseDto.UserSummaryDto();
+            dto.user.id = 1 + (long) random.nextInt(OWNERS);
+            dto.categories = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ProductResponseDto.CategorySummaryDto category = new ProductResponseDto.CategorySummaryDto();
+                category.id = 1 + (long) random.nextInt(CATEGORIES);
+                dto.categories.add(category);
+            }
+            catalog.add(dto);
+            snapshot.onCatalogEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.CREATED, id, dto));
+        }
+
+        query = new SnapshotQuery();
+        query.minPrice = 100.0;
+        query.maxPrice = 300.0;
+        query.categoryIds = Set.of(3L, 7L);
+    }
+
+    @Benchmark
+    public long[] filterObjects() {
+        return catalog.stream()
+                .filter(p -> p.price >= query.minPrice && p.price <= query.maxPrice)
+                .filter(p -> p.categories.stream().anyMatch(c -> query.categoryIds.contains(c.id)))
+                .mapToLong(p -> p.id)
+                .toArray();
+    }
+
+    @Benchmark
+    public long[] filterSnapshot() {
+        return snapshot.filter(query);
+    }
+
+    @Benchmark
+    public PriceStatsDto statsSnapshot() {
+        return snapshot.priceStats(query);
+    }
+}
@@ -0,0 +1,137 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara, sobre una tabla users con 5M filas en H2, las consultas que
+ * generan GET /api/users/page y existsByEmail contra sus equivalentes previos:
+ * OFFSET profundo vs cursor por id, y cargar la fila completa vs exists por índice.
+ *
+ * Ejecutar con: gradle jmh -Pjmh.includes=UserPaginationBenchmark
+ * La carga inicial de las filas tarda unos segundos por trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final String[] NAMES = {"Ana", "Bruno", "Carla", "Diego", "Elena", "Fabian", "Gabriela", "Hugo"};
+
+    @Param({"5000000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetPage;
+    private PreparedStatement namePrefixPage;
+    private PreparedStatement findByEmail;
+    private PreparedStatement existsByEmail;
+    private long middleId;
+    private String middleEmail;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:users-bench;DB_CLOSE_DELAY=-1", "sa", "");
+
+        // Mismo esquema que genera Hibernate para UserEntity
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    CREATE TABLE users (
+                        id BIGINT PRIMARY KEY,
+                        created_at TIMESTAMP,
+                        updated_at TIMESTAMP,
+                        deleted BOOLEAN NOT NULL,
+                        name VARCHAR(150) NOT NULL,
+                        email VARCHAR(150) NOT NULL UNIQUE,
+                        password VARCHAR(255) NOT NULL
+                    )
+                    """);
+
+            StringBuilder names = new StringBuilder("ARRAY[");
+            for (int i = 0; i < NAMES.length; i++) {
+                names.append(i > 0 ? ", " : "").append('\'').append(NAMES[i]).append('\'');
+            }
+            names.append(']');
+
+            ddl.execute("INSERT INTO users (id, created_at, deleted, name, email, password) "
+                    + "SELECT X, CURRENT_TIMESTAMP, FALSE, "
+                    + names + "[MOD(X, " + NAMES.length + ") + 1] || ' ' || X, "
+                    + "'usuario' || X || '@email.com', 'password123' "
+                    + "FROM SYSTEM_RANGE(1, " + rows + ")");
+            ddl.execute("CREATE INDEX idx_users_name ON users (name)");
+        }
+
+        middleId = rows / 2;
+        middleEmail = "usuario" + middleId + "@email.com";
+
+        offsetPage = connection.prepareStatement(
+                "SELECT id, name, email FROM users ORDER BY id OFFSET ? ROWS FETCH FIRST " + PAGE_SIZE + " ROWS ONLY");
+        keysetPage = connection.prepareStatement(
+                "SELECT id, name, email FROM users WHERE id > ? ORDER BY id FETCH FIRST " + PAGE_SIZE + " ROWS ONLY");
+        namePrefixPage = connection.prepareStatement(
+                "SELECT id, name, email FROM users WHERE id > ? AND name LIKE ? ESCAPE '\\' "
+                        + "ORDER BY id FETCH FIRST " + PAGE_SIZE + " ROWS ONLY");
+        findByEmail = connection.prepareStatement(
+                "SELECT id, created_at, updated_at, deleted, name, email, password FROM users WHERE email = ?");
+        existsByEmail = connection.prepareStatement(
+                "SELECT id FROM users WHERE email = ? FETCH FIRST 1 ROWS ONLY");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int offsetPageAtMiddle() throws SQLException {
+        offsetPage.setLong(1, middleId);
+        return count(offsetPage);
+    }
+
+    @Benchmark
+    public int keysetPageAtMiddle() throws SQLException {
+        keysetPage.setLong(1, middleId);
+        return count(keysetPage);
+    }
+
+    @Benchmark
+    public int namePrefixPageAtMiddle() throws SQLException {
+        namePrefixPage.setLong(1, middleId);
+        namePrefixPage.setString(2, "Carla 25%");
+        return count(namePrefixPage);
+    }
+
+    @Benchmark
+    public boolean findByEmailIsPresent() throws SQLException {
+        findByEmail.setString(1, middleEmail);
+        return count(findByEmail) > 0;
+    }
+
+    @Benchmark
+    public boolean existsByEmail() throws SQLException {
+        existsByEmail.setString(1, middleEmail);
+        return count(existsByEmail) > 0;
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
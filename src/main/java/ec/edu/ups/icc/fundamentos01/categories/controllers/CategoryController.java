@@ -4,10 +4,13 @@ import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CreateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.dtos.UpdateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.services.CategoryService;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -45,6 +48,21 @@ public class CategoryController {
         return ResponseEntity.ok(count);
     }
 
+    // GET /api/categories/{id}/stats - min/avg/max/percentiles de precio calculados en SQL
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<PriceStatsDto> getPriceStats(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getPriceStats(id));
+    }
+
+    // Borrado masivo de los productos de la categoría; responde el avance por bloque (NDJSON)
+    @DeleteMapping("/{id}/products")
+    public ResponseEntity<StreamingResponseBody> deleteProducts(@PathVariable Long id) {
+        StreamingResponseBody body = out -> categoryService.deleteProducts(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CategoryResponseDto> update(
             @PathVariable Long id,
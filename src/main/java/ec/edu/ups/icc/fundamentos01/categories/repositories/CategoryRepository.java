@@ -2,8 +2,12 @@ package ec.edu.ups.icc.fundamentos01.categories.repositories;
 
 import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +23,15 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
      * Busca categoría por nombre (case insensitive)
      */
     Optional<CategoryEntity> findByNameIgnoreCase(String name);
+
+    /**
+     * Varias categorías en una consulta, ordenadas por nombre
+     */
+    List<CategoryEntity> findByIdInOrderByNameAsc(Collection<Long> ids);
+
+    /**
+     * Varias categorías por nombre sin distinguir mayúsculas (names ya en minúsculas)
+     */
+    @Query("SELECT c FROM CategoryEntity c WHERE LOWER(c.name) IN :names")
+    List<CategoryEntity> findByLowerNameIn(@Param("names") Collection<String> names);
 }
@@ -3,7 +3,9 @@ package ec.edu.ups.icc.fundamentos01.categories.services;
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CreateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.dtos.UpdateCategoryDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface CategoryService {
@@ -13,4 +15,10 @@ public interface CategoryService {
     CategoryResponseDto update(Long id, UpdateCategoryDto dto);
     void delete(Long id);
     long countProductsByCategoryId(Long categoryId);
+
+    // Estadísticas de precio de los productos de la categoría (agregados SQL)
+    PriceStatsDto getPriceStats(Long categoryId);
+
+    // Borra todos los productos de la categoría por bloques, escribiendo el avance como NDJSON
+    void deleteProducts(Long categoryId, OutputStream out);
 }
@@ -6,9 +6,19 @@ import ec.edu.ups.icc.fundamentos01.categories.dtos.UpdateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
 import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
 import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductViewProjector;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import ec.edu.ups.icc.fundamentos01.streaming.JsonStreamWriter;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -16,13 +26,31 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepo;
     private final ProductRepository productRepo;
-
-    public CategoryServiceImpl(CategoryRepository categoryRepo, ProductRepository productRepo) {
+    private final ProductService productService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final ProductChangeRepository changeRepo;
+    private final ApplicationEventPublisher events;
+    private final ProductViewProjector productViews;
+
+    public CategoryServiceImpl(
+            CategoryRepository categoryRepo,
+            ProductRepository productRepo,
+            ProductService productService,
+            JsonStreamWriter jsonStreamWriter,
+            ProductChangeRepository changeRepo,
+            ApplicationEventPublisher events,
+            ProductViewProjector productViews) {
         this.categoryRepo = categoryRepo;
         this.productRepo = productRepo;
+        this.productService = productService;
+        this.jsonStreamWriter = jsonStreamWriter;
+        this.changeRepo = changeRepo;
+        this.events = events;
+        this.productViews = productViews;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryResponseDto> findAll() {
         return categoryRepo.findAll()
                 .stream()
@@ -31,6 +59,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryResponseDto findById(Long id) {
         return categoryRepo.findById(id)
                 .map(this::toResponseDto)
@@ -38,6 +67,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public CategoryResponseDto create(CreateCategoryDto dto) {
         // Validar que no exista una categoría con el mismo nombre
         if (categoryRepo.existsByName(dto.name)) {
@@ -49,10 +79,14 @@ public class CategoryServiceImpl implements CategoryService {
         entity.setDescription(dto.description);
 
         CategoryEntity saved = categoryRepo.save(entity);
-        return toResponseDto(saved);
+
+        CategoryResponseDto response = toResponseDto(saved);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.CATEGORY, CatalogEvent.CREATED, saved.getId(), response));
+        return response;
     }
 
     @Override
+    @Transactional
     public CategoryResponseDto update(Long id, UpdateCategoryDto dto) {
         CategoryEntity existing = categoryRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + id));
@@ -68,10 +102,19 @@ public class CategoryServiceImpl implements CategoryService {
         existing.setDescription(dto.description);
 
         CategoryEntity saved = categoryRepo.save(existing);
-        return toResponseDto(saved);
+
+        // Los productos de la categoría la embeben: cambian en el feed de cambios
+        // y se vuelve a serializar su JSON de categorías en product_view
+        changeRepo.recordUpsertsByCategory(id, LocalDateTime.now());
+        productViews.refreshCategory(id);
+
+        CategoryResponseDto response = toResponseDto(saved);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.CATEGORY, CatalogEvent.UPDATED, id, response));
+        return response;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         CategoryEntity category = categoryRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + id));
@@ -85,9 +128,11 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepo.delete(category);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.CATEGORY, CatalogEvent.DELETED, id, null));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countProductsByCategoryId(Long categoryId) {
         // Validar que la categoría existe
         if (!categoryRepo.existsById(categoryId)) {
@@ -97,6 +142,17 @@ public class CategoryServiceImpl implements CategoryService {
         return productRepo.findByCategoriesId(categoryId).size();
     }
 
+    @Override
+    public PriceStatsDto getPriceStats(Long categoryId) {
+        return productService.priceStatsByCategory(categoryId);
+    }
+
+    @Override
+    public void deleteProducts(Long categoryId, OutputStream out) {
+        // Cada bloque se confirma en su propia transacción dentro de ProductService
+        productService.deleteByCategory(categoryId, progress -> jsonStreamWriter.writeLine(progress, out));
+    }
+
     private CategoryResponseDto toResponseDto(CategoryEntity entity) {
         CategoryResponseDto dto = new CategoryResponseDto();
         dto.id = entity.getId();
@@ -0,0 +1,221 @@
+package ec.edu.ups.icc.fundamentos01.concurrency;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Claves de idempotencia (cabecera Idempotency-Key) para los POST que crean recursos.
+ *
+ * La primera petición con una clave ejecuta el trabajo; las repeticiones
+ * concurrentes esperan su mismo future y las posteriores reciben la respuesta
+ * guardada sin tocar la base de datos (cabecera Idempotent-Replayed: true).
+ * A diferencia de SingleFlight, el resultado se conserva hasta que vence el ttl.
+ *
+ * Solo se guardan los éxitos: si el original falla, quienes esperaban reciben
+ * el mismo error y la clave se libera para un nuevo intento. Reusar una clave
+ * con otro cuerpo responde 409 (se compara un SHA-256 del cuerpo).
+ *
+ * Configuración (app.idempotency.*): ttl, max-keys (al llenarse se descartan
+ * las más antiguas). Métricas: idempotency.requests{result=executed|replayed}
+ * e idempotency.keys.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Resultado de la operación y si fue una repetición
+     */
+    public record Result<T>(T value, boolean replayed) {
+
+        public ResponseEntity<T> toResponse(HttpStatus status) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+            if (replayed) {
+                response.header(REPLAYED_HEADER, "true");
+            }
+            return response.body(value);
+        }
+    }
+
+    private static final class Entry {
+        final byte[] fingerprint;
+        final long createdAt;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Entry(byte[] fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+
+    // En orden de creación: las vencidas siempre están al principio
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final Counter executed;
+    private final Counter replayed;
+
+    public IdempotencyStore(
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            @Value("${app.idempotency.max-keys:10000}") int maxKeys
+    ) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<String, Entry>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+
+        this.executed = Counter.builder("idempotency.requests")
+                .description("Peticiones con clave ejecutadas por primera vez")
+                .tag("result", "executed")
+                .register(registry);
+        this.replayed = Counter.builder("idempotency.requests")
+                .description("Repeticiones respondidas con el resultado del original")
+                .tag("result", "replayed")
+                .register(registry);
+        registry.gauge("idempotency.keys", this, store -> store.size());
+    }
+
+    /**
+     * Versión síncrona (ej. ProductService.create)
+     *
+     * @param scope   operación, ej. "POST /api/products"; la misma clave en otra operación es independiente
+     * @param key     valor de la cabecera; null ejecuta sin registrar nada
+     * @param request cuerpo de la petición (para detectar una clave reutilizada con otro cuerpo)
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Supplier<T> work) {
+        try {
+            return executeAsync(scope, key, request, () -> CompletableFuture.completedFuture(work.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Versión para servicios que ya devuelven un future (ej. UserService.create)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Result<T>> executeAsync(
+            String scope,
+            String key,
+            Object request,
+            Supplier<CompletableFuture<T>> work
+    ) {
+        if (key == null) {
+            return work.get().thenApply(value -> new Result<>(value, false));
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String storeKey = scope + " " + key;
+        byte[] fingerprint = fingerprint(request);
+        long now = System.currentTimeMillis();
+        Entry mine = new Entry(fingerprint, now);
+        Entry existing;
+
+        synchronized (entries) {
+            removeExpired(now);
+            existing = entries.putIfAbsent(storeKey, mine);
+        }
+
+        // 1. REPETICIÓN: misma respuesta (o espera al original en curso)
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+                throw new ConflictException(HEADER + " ya fue usada con otro cuerpo de petición");
+            }
+            replayed.increment();
+            return existing.future.thenApply(value -> new Result<>((T) value, true));
+        }
+
+        // 2. PRIMERA VEZ: se ejecuta y el resultado queda para las repeticiones
+        executed.increment();
+        CompletableFuture<T> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException | Error e) {
+            release(storeKey, mine, e);
+            throw e;
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                release(storeKey, mine, error);
+            } else {
+                mine.future.complete(value);
+            }
+        });
+        return result.thenApply(value -> new Result<>(value, false));
+    }
+
+    /**
+     * El original falló: los que esperaban reciben el error y la clave queda libre
+     */
+    private void release(String storeKey, Entry entry, Throwable error) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+        entry.future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error);
+    }
+
+    private void removeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (now - entry.createdAt < ttlMillis) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
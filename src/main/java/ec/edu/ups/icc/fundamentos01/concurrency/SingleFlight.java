@@ -0,0 +1,102 @@
+package ec.edu.ups.icc.fundamentos01.concurrency;
+
+import ec.edu.ups.icc.fundamentos01.config.datasource.DataSourceContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de lecturas concurrentes idénticas (single-flight).
+ *
+ * El primer llamador con una clave hace el trabajo; los que llegan mientras
+ * está en curso esperan el mismo future y reciben el mismo resultado (o la
+ * misma excepción). Al terminar la clave se libera: no es una caché.
+ *
+ * Read-after-write: quien escribe llama a forget al confirmar, así las lecturas
+ * siguientes empiezan una ejecución nueva en lugar de unirse a una que empezó
+ * antes del commit. Las peticiones fijadas al primario (read-your-writes) solo
+ * se coalescen entre ellas: una ejecución de otra sesión puede ir a la réplica.
+ *
+ * Métricas: singleflight.calls{result=leader|coalesced}
+ */
+@Component
+public class SingleFlight {
+
+    private static final String PRIMARY_SUFFIX = "@primary";
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    public SingleFlight(MeterRegistry registry) {
+        this.leaders = Counter.builder("singleflight.calls")
+                .description("Lecturas ejecutadas por el primer llamador")
+                .tag("result", "leader")
+                .register(registry);
+        this.coalesced = Counter.builder("singleflight.calls")
+                .description("Lecturas que reutilizaron una ejecución en curso")
+                .tag("result", "coalesced")
+                .register(registry);
+        registry.gauge("singleflight.in_flight", inFlight, ConcurrentHashMap::size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> work) {
+        String flightKey = DataSourceContextHolder.isPrimaryForced() ? key + PRIMARY_SUFFIX : key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        leaders.increment();
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    /**
+     * Los que llegan después ya no se unen a la ejecución en curso para esta clave
+     * (quienes ya esperaban reciben su resultado igual)
+     */
+    public void forget(String key) {
+        inFlight.remove(key);
+        inFlight.remove(key + PRIMARY_SUFFIX);
+    }
+
+    /**
+     * forget para todas las claves que empiezan con el prefijo (ej. todos los listados de categoría)
+     */
+    public void forgetAll(String keyPrefix) {
+        inFlight.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,12 +3,17 @@ package ec.edu.ups.icc.fundamentos01.config;
 import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
 import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductViewRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductViewProjector;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -18,15 +23,24 @@ public class DataLoader implements CommandLineRunner {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductViewRepository productViewRepository;
+    private final ProductViewProjector productViewProjector;
 
     public DataLoader(
             ProductRepository productRepository,
             UserRepository userRepository,
-            CategoryRepository categoryRepository
+            CategoryRepository categoryRepository,
+            ProductChangeRepository productChangeRepository,
+            ProductViewRepository productViewRepository,
+            ProductViewProjector productViewProjector
     ) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
+        this.productChangeRepository = productChangeRepository;
+        this.productViewRepository = productViewRepository;
+        this.productViewProjector = productViewProjector;
     }
 
     @Override
@@ -142,5 +156,19 @@ public class DataLoader implements CommandLineRunner {
         } else {
             System.out.println("ℹ️  Ya existen datos en la base de datos. No se cargan datos iniciales.");
         }
+
+        // Feed de cambios vacío: los productos existentes entran como UPSERT iniciales
+        if (productChangeRepository.count() == 0) {
+            int recorded = productChangeRepository.recordUpsertsForAll(LocalDateTime.now());
+            System.out.println("   - " + recorded + " productos registrados en el feed de cambios");
+        }
+
+        // Modelo de lectura: se reconstruye si está vacío (datos recién cargados)
+        // o si se pide al arrancar con --rebuild-product-view
+        boolean rebuildRequested = Arrays.asList(args).contains("--rebuild-product-view");
+        if (rebuildRequested || (productViewRepository.count() == 0 && productRepository.count() > 0)) {
+            long projected = productViewProjector.rebuild();
+            System.out.println("   - " + projected + " productos proyectados en product_view");
+        }
     }
 }
@@ -0,0 +1,75 @@
+package ec.edu.ups.icc.fundamentos01.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Estado del enrutamiento asociado al hilo de la petición actual.
+ * - forcePrimary: la petición debe leer del primario (read-your-writes)
+ * - wrote: la petición abrió al menos una transacción de escritura
+ * - onWrite: qué hacer si escribió (ReadYourWritesFilter registra la sesión)
+ *
+ * Si la petición continúa en otro hilo (ej. el pool de PasswordHasher), se
+ * captura con capture() en el hilo de la petición y el trabajo se ejecuta con
+ * Context.call: el otro hilo ve el mismo estado, la escritura se registra para
+ * la sesión y al terminar el hilo queda limpio.
+ */
+public final class DataSourceContextHolder {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> WROTE = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Runnable> ON_WRITE = new ThreadLocal<>();
+
+    private DataSourceContextHolder() {}
+
+    public static void forcePrimary() { FORCE_PRIMARY.set(true); }
+    public static boolean isPrimaryForced() { return FORCE_PRIMARY.get(); }
+
+    public static void markWrite() { WROTE.set(true); }
+    public static boolean hasWritten() { return WROTE.get(); }
+
+    public static void onWrite(Runnable listener) { ON_WRITE.set(listener); }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+        WROTE.remove();
+        ON_WRITE.remove();
+    }
+
+    /**
+     * Estado de la petición actual para continuarla en otro hilo
+     */
+    public static Context capture() {
+        return new Context(FORCE_PRIMARY.get(), ON_WRITE.get());
+    }
+
+    public record Context(boolean forcePrimary, Runnable onWrite) {
+
+        /**
+         * Ejecuta el trabajo con este estado y, si escribió, lo registra para la sesión.
+         * Al terminar se restaura el estado anterior del hilo (también si es el de la petición).
+         */
+        public <T> T call(Supplier<T> work) {
+            boolean previousForce = FORCE_PRIMARY.get();
+            boolean previousWrote = WROTE.get();
+            Runnable previousOnWrite = ON_WRITE.get();
+
+            FORCE_PRIMARY.set(forcePrimary);
+            WROTE.set(false);
+            ON_WRITE.set(onWrite);
+            try {
+                return work.get();
+            } finally {
+                if (WROTE.get() && onWrite != null) {
+                    onWrite.run();
+                }
+                if (previousOnWrite == null && !previousForce && !previousWrote) {
+                    clear();
+                } else {
+                    FORCE_PRIMARY.set(previousForce);
+                    WROTE.set(previousWrote);
+                    ON_WRITE.set(previousOnWrite);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ec.edu.ups.icc.fundamentos01.config.datasource;
+
+/**
+ * Destinos posibles del enrutamiento de conexiones
+ */
+public enum DataSourceType {
+    PRIMARY,
+    REPLICA
+}
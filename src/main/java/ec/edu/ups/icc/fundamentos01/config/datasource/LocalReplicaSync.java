@@ -0,0 +1,182 @@
+package ec.edu.ups.icc.fundamentos01.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicación simulada para probar el enrutamiento en local con dos bases H2
+ * en memoria (ver application-replica.yml). Solo para desarrollo.
+ *
+ * Al arrancar (después de que Hibernate creó las tablas en el primario) se
+ * copia el esquema a la réplica; luego, cada app.datasource.routing.local-replica.lag,
+ * se copian todas las filas: una lectura REPEATABLE READ del primario y, en la
+ * réplica, DELETE + INSERT por lotes en una sola transacción, así los lectores
+ * ven la copia anterior o la nueva, nunca una a medias. Entre copias la réplica
+ * está atrasada, que es justo lo que read-your-writes debe cubrir.
+ *
+ * La réplica se escribe con una conexión propia (no con su pool, que es de solo lectura).
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.routing.local-replica.enabled", havingValue = "true")
+public class LocalReplicaSync {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private final HikariDataSource primary;
+    private final Connection replica;
+    private final Duration lag;
+    private final ScheduledExecutorService scheduler;
+
+    private List<String> tables = List.of();
+
+    /**
+     * @param entityManagerFactory solo para crear este bean después del esquema del primario
+     */
+    public LocalReplicaSync(
+            @Qualifier("primaryDataSource") HikariDataSource primary,
+            @Qualifier("replicaDataSource") HikariDataSource replica,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${app.datasource.routing.local-replica.lag:1s}") Duration lag
+    ) throws SQLException {
+        this.primary = primary;
+        this.replica = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+        this.lag = lag;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "local-replica-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Antes de DataLoader (los CommandLineRunner corren con todos los beans creados):
+     * las lecturas del arranque ya encuentran las tablas en la réplica
+     */
+    @PostConstruct
+    public void start() throws SQLException {
+        copySchema();
+        sync();
+        long lagMillis = lag.toMillis();
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, lagMillis, lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void copySchema() throws SQLException {
+        List<String> statements = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try (Connection source = primary.getConnection();
+             Statement query = source.createStatement()) {
+            try (ResultSet rs = query.executeQuery("SCRIPT NODATA")) {
+                while (rs.next()) {
+                    statements.add(rs.getString(1));
+                }
+            }
+            try (ResultSet rs = query.executeQuery("""
+                    SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES
+                    WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'
+                    """)) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+
+        try (Statement ddl = replica.createStatement()) {
+            // Reinicio en caliente (devtools): la base en memoria de la réplica sigue viva
+            ddl.execute("DROP ALL OBJECTS");
+            for (String statement : statements) {
+                ddl.execute(statement);
+            }
+            // Las filas se copian tabla por tabla, sin orden de claves foráneas
+            ddl.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+        tables = Collections.unmodifiableList(names);
+    }
+
+    // ============== COPIA DE DATOS ==============
+
+    private synchronized void sync() throws SQLException {
+        try (Connection source = primary.getConnection()) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            source.setReadOnly(true);
+            replica.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    copyTable(source, table);
+                }
+                replica.commit();
+            } catch (SQLException e) {
+                replica.rollback();
+                throw e;
+            } finally {
+                source.commit();
+            }
+        }
+    }
+
+    private void copyTable(Connection source, String table) throws SQLException {
+        try (Statement delete = replica.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + table);
+        }
+
+        try (Statement select = source.createStatement();
+             ResultSet rows = select.executeQuery("SELECT * FROM " + table)) {
+            ResultSetMetaData meta = rows.getMetaData();
+            int columns = meta.getColumnCount();
+            String placeholders = String.join(", ", Collections.nCopies(columns, "?"));
+
+            try (PreparedStatement insert = replica.prepareStatement(
+                    "INSERT INTO " + table + " VALUES (" + placeholders + ")")) {
+                int pending = 0;
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        insert.setObject(i, rows.getObject(i));
+                    }
+                    insert.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("⚠️ Réplica local: no se pudo copiar desde el primario: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws SQLException {
+        scheduler.shutdownNow();
+        replica.close();
+    }
+}
@@ -0,0 +1,89 @@
+package ec.edu.ups.icc.fundamentos01.config.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-your-writes: después de que una sesión escribe, sus lecturas se
+ * fijan al primario durante una ventana configurable para no leer datos
+ * que la réplica todavía no tiene.
+ *
+ * La sesión se identifica por una cabecera (por defecto X-Session-Id);
+ * si no viene, se usa la dirección del cliente.
+ *
+ * El valor de la cabecera lo elige el cliente: a lo sumo una vez por ventana
+ * se barren las sesiones vencidas, así el mapa solo guarda las que
+ * escribieron durante la última ventana (y no crece con valores al azar).
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final String sessionHeader;
+    private final long windowMillis;
+    private final Map<String, Long> lastWriteBySession = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    public ReadYourWritesFilter(String sessionHeader, Duration window) {
+        this.sessionHeader = sessionHeader;
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain chain
+    ) throws ServletException, IOException {
+        String session = resolveSession(request);
+        long now = System.currentTimeMillis();
+        sweepExpired(now);
+
+        Long lastWrite = lastWriteBySession.get(session);
+        if (lastWrite != null) {
+            if (now - lastWrite < windowMillis) {
+                DataSourceContextHolder.forcePrimary();
+            } else {
+                lastWriteBySession.remove(session, lastWrite);
+            }
+        }
+        // También para las escrituras que terminan en otro hilo (ver DataSourceContextHolder.capture)
+        DataSourceContextHolder.onWrite(() -> recordWrite(session));
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (DataSourceContextHolder.hasWritten()) {
+                recordWrite(session);
+            }
+            DataSourceContextHolder.clear();
+        }
+    }
+
+    private void recordWrite(String session) {
+        lastWriteBySession.put(session, System.currentTimeMillis());
+    }
+
+    /**
+     * Quita las sesiones cuya ventana ya venció; solo un hilo barre por ventana
+     */
+    private void sweepExpired(long now) {
+        long last = lastSweep.get();
+        if (now - last < windowMillis || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        lastWriteBySession.values().removeIf(lastWrite -> now - lastWrite >= windowMillis);
+    }
+
+    private String resolveSession(HttpServletRequest request) {
+        String session = request.getHeader(sessionHeader);
+        return session != null && !session.isBlank() ? session : request.getRemoteAddr();
+    }
+}
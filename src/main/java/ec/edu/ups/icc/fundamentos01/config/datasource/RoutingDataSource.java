@@ -0,0 +1,27 @@
+package ec.edu.ups.icc.fundamentos01.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envía las transacciones readOnly a la réplica y todo lo demás al primario.
+ * Debe envolverse en un LazyConnectionDataSourceProxy para que la decisión
+ * se tome cuando la transacción ya está marcada como readOnly.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (readOnly && !DataSourceContextHolder.isPrimaryForced()) {
+            return DataSourceType.REPLICA;
+        }
+
+        // Sin transacción (DDL, arranque) o transacción de escritura -> primario
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !readOnly) {
+            DataSourceContextHolder.markWrite();
+        }
+        return DataSourceType.PRIMARY;
+    }
+}
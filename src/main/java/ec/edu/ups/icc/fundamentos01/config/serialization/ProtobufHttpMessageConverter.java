@@ -0,0 +1,158 @@
+package ec.edu.ups.icc.fundamentos01.config.serialization;
+
+import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
+import ec.edu.ups.icc.fundamentos01.exception.response.ErrorResponse;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.dataformat.protobuf.ProtobufMapper;
+import tools.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import tools.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe los DTOs de respuesta como Protobuf usando el esquema
+ * proto/catalog.proto (solo escritura, las peticiones siguen siendo JSON).
+ *
+ * Los writers se construyen una vez por tipo de mensaje al arrancar.
+ * Las listas se envuelven en el mensaje {Dto}List { repeated items }.
+ * Los details de ErrorResponse se escriben como entradas key/value (ver ErrorDetail en el .proto).
+ */
+public class ProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf("application/x-protobuf");
+
+    private static final String SCHEMA_LOCATION = "proto/catalog.proto";
+
+    private static final List<Class<?>> MESSAGE_TYPES = List.of(
+            ProductResponseDto.class,
+            UserResponseDto.class,
+            CategoryResponseDto.class,
+            ErrorResponse.class
+    );
+
+    private final Map<Class<?>, ObjectWriter> singleWriters = new HashMap<>();
+    private final Map<Class<?>, ObjectWriter> listWriters = new HashMap<>();
+
+    public ProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+
+        ProtobufMapper mapper = ProtobufMapper.builder()
+                .enable(StreamWriteFeature.IGNORE_UNKNOWN)
+                .build();
+        NativeProtobufSchema schema = loadSchema();
+
+        for (Class<?> type : MESSAGE_TYPES) {
+            String message = type.getSimpleName();
+            singleWriters.put(type, mapper.writer(schema.forType(message)));
+            if (schema.hasMessageType(message + "List")) {
+                listWriters.put(type, mapper.writer(schema.forType(message + "List")));
+            }
+        }
+    }
+
+    private static NativeProtobufSchema loadSchema() {
+        try (InputStream in = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return ProtobufSchemaLoader.std.loadNative(in, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar " + SCHEMA_LOCATION, e);
+        }
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return resolveWriter(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Las listas se validan por su tipo genérico en canWrite(Type, ...)
+        return singleWriters.containsKey(clazz) || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ObjectWriter writer = resolveWriter(type != null ? type : body.getClass());
+        Object message = body instanceof List<?> items ? new ItemsWrapper(items) : body;
+        if (body instanceof ErrorResponse error) {
+            message = ErrorMessage.of(error);
+        }
+        writer.writeValue(outputMessage.getBody(), message);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite en respuestas", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite en respuestas", inputMessage);
+    }
+
+    private ObjectWriter resolveWriter(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.toClass();
+
+        if (List.class.isAssignableFrom(raw)) {
+            return listWriters.get(resolved.getGeneric(0).toClass());
+        }
+        return singleWriters.get(raw);
+    }
+
+    /**
+     * Cuerpo del mensaje {Dto}List
+     */
+    record ItemsWrapper(List<?> items) {}
+
+    /**
+     * Cuerpo del mensaje ErrorResponse: el mapa details como lista de ErrorDetail
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record ErrorMessage(
+            LocalDateTime timestamp,
+            int status,
+            String error,
+            String message,
+            String path,
+            List<ErrorDetail> details
+    ) {
+        static ErrorMessage of(ErrorResponse response) {
+            List<ErrorDetail> details = response.getDetails() == null ? null
+                    : response.getDetails().entrySet().stream()
+                            .map(entry -> new ErrorDetail(entry.getKey(), entry.getValue()))
+                            .toList();
+            return new ErrorMessage(response.getTimestamp(), response.getStatus(), response.getError(),
+                    response.getMessage(), response.getPath(), details);
+        }
+    }
+
+    record ErrorDetail(String key, String value) {}
+}
@@ -0,0 +1,30 @@
+package ec.edu.ups.icc.fundamentos01.config.serialization;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Formatos binarios de respuesta negociados por la cabecera Accept:
+ * - application/cbor             (jackson-dataformat-cbor, registrado por Spring MVC)
+ * - application/x-jackson-smile  (jackson-dataformat-smile, registrado por Spring MVC)
+ * - application/x-protobuf       (este converter + proto/catalog.proto)
+ */
+@Configuration
+public class SerializationConfig implements WebMvcConfigurer {
+
+    private final JacksonJsonHttpMessageConverter jsonConverter;
+
+    public SerializationConfig(JacksonJsonHttpMessageConverter jsonConverter) {
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        // Los converters personalizados van antes que los por defecto; JSON se
+        // registra primero para que siga siendo el formato por defecto (Accept: */*)
+        builder.addCustomConverter(jsonConverter)
+                .addCustomConverter(new ProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,27 @@
+package ec.edu.ups.icc.fundamentos01.config.warmstart;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cadenas del archivo de arranque en caliente: largo (int) + bytes UTF-8.
+ * Se escriben con DataOutput y se leen directo del buffer mapeado.
+ */
+public final class SnapshotIO {
+
+    private SnapshotIO() {}
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
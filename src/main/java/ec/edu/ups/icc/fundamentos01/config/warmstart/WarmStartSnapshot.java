@@ -0,0 +1,368 @@
+package ec.edu.ups.icc.fundamentos01.config.warmstart;
+
+import ec.edu.ups.icc.fundamentos01.products.snapshot.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Arranque en caliente: el catálogo se guarda en un archivo binario al apagar
+ * y se restaura al arrancar, en lugar de volver a sembrarlo o reproyectarlo.
+ *
+ * Al apagar (después de que el servidor web dejó de atender) se vuelcan las
+ * tablas en una sola transacción REPEATABLE READ, así el archivo es una foto
+ * consistente, y a continuación las columnas de ProductSnapshot si está activo.
+ * Se escribe en un .tmp y se renombra: un apagado abrupto deja el archivo anterior.
+ *
+ * Al arrancar, si la base está vacía, el archivo se mapea en memoria y se lee
+ * directo del buffer mapeado hacia INSERT por lotes (sin chequeo de claves
+ * foráneas); las columnas del snapshot se copian en bloque. Las tablas se
+ * crean antes con ddl-auto, así que los índices los reconstruye H2.
+ *
+ * Activar con app.warm-start.enabled; app.warm-start.file es la ruta del archivo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Antes de DataLoader: con datos restaurados no siembra nada
+@ConditionalOnProperty(name = "app.warm-start.enabled", havingValue = "true")
+public class WarmStartSnapshot implements CommandLineRunner, SmartLifecycle {
+
+    private static final int MAGIC = 0x57524D53; // "WRMS"
+    private static final int VERSION = 1;
+    private static final int BATCH_SIZE = 5_000;
+
+    // Tipos de columna en el archivo
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final byte TIMESTAMP = 5;
+
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+
+    // Tabla -> columna IDENTITY (null si el ID no se genera), en orden de restauración
+    private static final Map<String, String> TABLES;
+    static {
+        Map<String, String> tables = new LinkedHashMap<>();
+        tables.put("users", "id");
+        tables.put("categories", "id");
+        tables.put("products", "id");
+        tables.put("product_categories", null);
+        tables.put("product_view", null);
+        tables.put("product_changes", "seq");
+        TABLES = Collections.unmodifiableMap(tables);
+    }
+
+    private final DataSource dataSource;
+    private final ProductSnapshot snapshot;
+    private final Path file;
+    private volatile boolean running;
+
+    public WarmStartSnapshot(
+            DataSource dataSource,
+            Optional<ProductSnapshot> snapshot,
+            @Value("${app.warm-start.file:./data/warm-start.bin}") Path file) {
+        this.dataSource = dataSource;
+        this.snapshot = snapshot.orElse(null);
+        this.file = file.toAbsolutePath();
+    }
+
+    // ============== CICLO DE VIDA ==============
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Fase baja: se detiene después del servidor web (sin peticiones en curso)
+     * y antes de destruir el pool de conexiones
+     */
+    @Override
+    public void stop() {
+        running = false;
+        long start = System.nanoTime();
+        try {
+            long bytes = save();
+            System.out.println("💾 Arranque en caliente: " + (bytes >> 10) + " KB guardados en " + file
+                    + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        } catch (IOException | SQLException e) {
+            System.err.println("⚠️ No se pudo guardar el archivo de arranque en caliente: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // ============== GUARDAR ==============
+
+    private long save() throws IOException, SQLException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (Connection connection = dataSource.getConnection();
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(TABLES.size());
+            for (String table : TABLES.keySet()) {
+                writeTable(connection, table, out);
+            }
+            connection.commit();
+
+            out.writeBoolean(snapshot != null && snapshot.isReady());
+            if (snapshot != null && snapshot.isReady()) {
+                snapshot.writeTo(out);
+            }
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    private void writeTable(Connection connection, String table, DataOutputStream out)
+            throws IOException, SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(1000);
+            try (ResultSet rs = statement.executeQuery("SELECT * FROM " + table)) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                byte[] types = new byte[columns];
+
+                SnapshotIO.writeString(out, table);
+                out.writeInt(columns);
+                for (int i = 0; i < columns; i++) {
+                    types[i] = typeOf(meta.getColumnType(i + 1));
+                    SnapshotIO.writeString(out, meta.getColumnName(i + 1));
+                    out.writeByte(types[i]);
+                }
+
+                while (rs.next()) {
+                    out.writeByte(ROW);
+                    for (int i = 0; i < columns; i++) {
+                        writeValue(rs, i + 1, types[i], out);
+                    }
+                }
+                out.writeByte(END);
+            }
+        }
+    }
+
+    private static byte typeOf(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> LONG;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> DOUBLE;
+            case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+            case Types.TIMESTAMP -> TIMESTAMP;
+            // ENUM, VARCHAR, etc.: como texto (H2 lo convierte al insertar)
+            default -> STRING;
+        };
+    }
+
+    // Cada valor va precedido de un byte: 1 = presente, 0 = NULL
+    private static void writeValue(ResultSet rs, int column, byte type, DataOutputStream out)
+            throws IOException, SQLException {
+        switch (type) {
+            case LONG -> {
+                long value = rs.getLong(column);
+                if (writePresent(rs, out)) out.writeLong(value);
+            }
+            case DOUBLE -> {
+                double value = rs.getDouble(column);
+                if (writePresent(rs, out)) out.writeDouble(value);
+            }
+            case BOOLEAN -> {
+                boolean value = rs.getBoolean(column);
+                if (writePresent(rs, out)) out.writeBoolean(value);
+            }
+            case TIMESTAMP -> {
+                LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(value.getNano());
+                }
+            }
+            default -> {
+                String value = rs.getString(column);
+                out.writeBoolean(value != null);
+                if (value != null) SnapshotIO.writeString(out, value);
+            }
+        }
+    }
+
+    private static boolean writePresent(ResultSet rs, DataOutputStream out) throws IOException, SQLException {
+        boolean present = !rs.wasNull();
+        out.writeBoolean(present);
+        return present;
+    }
+
+    // ============== RESTAURAR ==============
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Connection connection = dataSource.getConnection()) {
+            if (!isEmpty(connection)) {
+                System.out.println("ℹ️ Arranque en caliente omitido: la base de datos ya tiene datos");
+                return;
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.err.println("⚠️ Archivo de arranque en caliente mayor a 2 GB; se ignora");
+                return;
+            }
+
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                System.err.println("⚠️ Archivo de arranque en caliente con formato desconocido; se ignora");
+                return;
+            }
+
+            long rows = 0;
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+                try {
+                    int tables = in.getInt();
+                    for (int t = 0; t < tables; t++) {
+                        rows += readTable(connection, in);
+                    }
+                    restartIdentities(statement);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                }
+            }
+
+            if (in.get() != 0 && snapshot != null) {
+                snapshot.readFrom(in);
+            }
+
+            System.out.println("⚡ Arranque en caliente: " + rows + " filas restauradas desde " + file
+                    + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        }
+    }
+
+    private boolean isEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT (SELECT COUNT(*) FROM users) + (SELECT COUNT(*) FROM products)")) {
+            rs.next();
+            return rs.getLong(1) == 0;
+        }
+    }
+
+    private long readTable(Connection connection, MappedByteBuffer in) throws SQLException {
+        String table = SnapshotIO.readString(in);
+        if (!TABLES.containsKey(table)) {
+            throw new IllegalStateException("Tabla desconocida en el archivo de arranque en caliente: " + table);
+        }
+
+        int columns = in.getInt();
+        byte[] types = new byte[columns];
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        for (int i = 0; i < columns; i++) {
+            sql.append(i == 0 ? "" : ", ").append('"').append(SnapshotIO.readString(in)).append('"');
+            types[i] = in.get();
+        }
+        sql.append(") VALUES (").append("?, ".repeat(columns - 1)).append("?)");
+
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql.toString())) {
+            while (in.get() == ROW) {
+                for (int i = 0; i < columns; i++) {
+                    readValue(in, insert, i + 1, types[i]);
+                }
+                insert.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return rows;
+    }
+
+    private static void readValue(MappedByteBuffer in, PreparedStatement insert, int column, byte type)
+            throws SQLException {
+        if (in.get() == 0) {
+            insert.setObject(column, null);
+            return;
+        }
+        switch (type) {
+            case LONG -> insert.setLong(column, in.getLong());
+            case DOUBLE -> insert.setDouble(column, in.getDouble());
+            case BOOLEAN -> insert.setBoolean(column, in.get() != 0);
+            case TIMESTAMP -> insert.setObject(column,
+                    LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+            default -> insert.setString(column, SnapshotIO.readString(in));
+        }
+    }
+
+    /**
+     * Los IDs se insertaron explícitos: el siguiente IDENTITY debe continuar después del mayor
+     */
+    private static void restartIdentities(Statement statement) throws SQLException {
+        for (Map.Entry<String, String> entry : TABLES.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            long next;
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT COALESCE(MAX(" + entry.getValue() + "), 0) + 1 FROM " + entry.getKey())) {
+                rs.next();
+                next = rs.getLong(1);
+            }
+            statement.execute("ALTER TABLE " + entry.getKey() + " ALTER COLUMN " + entry.getValue()
+                    + " RESTART WITH " + next);
+        }
+    }
+}
@@ -2,16 +2,29 @@ package ec.edu.ups.icc.fundamentos01.exception.base;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Base de las excepciones de dominio (exception/domain).
+ *
+ * Son errores esperados (404, 409...) que se traducen a una respuesta HTTP, así que
+ * por defecto no capturan stack trace: llenarlo es la parte más cara de lanzarlas.
+ * Para depurar se activa con app.exceptions.stack-traces=true (ver StackTraceConfig).
+ */
 public abstract class ApplicationException extends RuntimeException {
 
+    private static volatile boolean captureStackTraces = false;
+
     private final HttpStatus status;
 
     protected ApplicationException(HttpStatus status, String message) {
-        super(message);
+        super(message, null, false, captureStackTraces);
         this.status = status;
     }
 
     public HttpStatus getStatus() {
         return status;
     }
+
+    static void setCaptureStackTraces(boolean enabled) {
+        captureStackTraces = enabled;
+    }
 }
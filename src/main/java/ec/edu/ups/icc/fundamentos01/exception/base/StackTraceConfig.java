@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.exception.base;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lee app.exceptions.stack-traces una sola vez al arrancar y la aplica a
+ * ApplicationException. Es el único que puede cambiarla (el setter es de paquete).
+ */
+@Configuration
+public class StackTraceConfig {
+
+    public StackTraceConfig(@Value("${app.exceptions.stack-traces:false}") boolean captureStackTraces) {
+        ApplicationException.setCaptureStackTraces(captureStackTraces);
+    }
+}
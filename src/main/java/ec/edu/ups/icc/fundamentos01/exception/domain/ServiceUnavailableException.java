@@ -0,0 +1,10 @@
+package ec.edu.ups.icc.fundamentos01.exception.domain;
+
+import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends ApplicationException {
+    public ServiceUnavailableException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
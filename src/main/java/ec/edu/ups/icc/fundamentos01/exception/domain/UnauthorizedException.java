@@ -0,0 +1,10 @@
+package ec.edu.ups.icc.fundamentos01.exception.domain;
+
+import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+import org.springframework.http.HttpStatus;
+
+public class UnauthorizedException extends ApplicationException {
+    public UnauthorizedException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message);
+    }
+}
@@ -17,7 +17,17 @@ public class ErrorResponse implements Serializable {
     private Map<String, String> details;
 
     public ErrorResponse(HttpStatus status, String message, String path, Map<String, String> details) {
-        this.timestamp = LocalDateTime.now();
+        this(ErrorTimestamps.now(), status, message, path, details);
+    }
+
+    public ErrorResponse(
+            LocalDateTime timestamp,
+            HttpStatus status,
+            String message,
+            String path,
+            Map<String, String> details
+    ) {
+        this.timestamp = timestamp;
         this.status = status.value();
         this.error = status.getReasonPhrase();
         this.message = message;
@@ -0,0 +1,35 @@
+package ec.edu.ups.icc.fundamentos01.exception.response;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Timestamp de las respuestas de error con resolución de milisegundos.
+ *
+ * Se recalcula como mucho una vez por milisegundo a partir del mismo instante
+ * que sirve de clave, en lugar de llamar a LocalDateTime.now() (zona horaria
+ * incluida) en cada error.
+ */
+public final class ErrorTimestamps {
+
+    private record Cached(long epochMilli, LocalDateTime value) {}
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final AtomicReference<Cached> CURRENT =
+            new AtomicReference<>(new Cached(Long.MIN_VALUE, null));
+
+    private ErrorTimestamps() {}
+
+    public static LocalDateTime now() {
+        long epochMilli = System.currentTimeMillis();
+        Cached cached = CURRENT.get();
+        if (cached.epochMilli() != epochMilli) {
+            cached = new Cached(epochMilli, LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZONE));
+            CURRENT.set(cached);
+        }
+        return cached.value();
+    }
+}
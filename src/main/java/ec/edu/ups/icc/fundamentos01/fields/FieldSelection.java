@@ -0,0 +1,61 @@
+package ec.edu.ups.icc.fundamentos01.fields;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Campos pedidos por el cliente con ?fields=a,b,c (sparse fieldsets).
+ *
+ * Conserva el orden canónico de los campos permitidos para que la
+ * respuesta tenga siempre la misma forma sin importar cómo se pidan.
+ */
+public final class FieldSelection {
+
+    private final List<String> fields;
+
+    private FieldSelection(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Valida y normaliza el parámetro fields contra la lista de campos permitidos
+     */
+    public static FieldSelection parse(String raw, List<String> allowed) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : raw.split(",")) {
+            if (!field.isBlank()) {
+                requested.add(field.trim());
+            }
+        }
+
+        if (requested.isEmpty()) {
+            throw new BadRequestException("El parámetro fields no puede estar vacío");
+        }
+
+        for (String field : requested) {
+            if (!allowed.contains(field)) {
+                throw new BadRequestException(
+                        "Campo desconocido: " + field + ". Campos permitidos: " + String.join(",", allowed)
+                );
+            }
+        }
+
+        return new FieldSelection(allowed.stream().filter(requested::contains).toList());
+    }
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean includesAny(String... candidates) {
+        return Arrays.stream(candidates).anyMatch(fields::contains);
+    }
+
+    public List<String> fields() {
+        return fields;
+    }
+}
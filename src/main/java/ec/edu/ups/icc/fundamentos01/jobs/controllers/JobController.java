@@ -0,0 +1,67 @@
+package ec.edu.ups.icc.fundamentos01.jobs.controllers;
+
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.CreateJobDto;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.JobResponseDto;
+import ec.edu.ups.icc.fundamentos01.jobs.services.JobService;
+import jakarta.validation.Valid;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    // POST /api/jobs - Encola una exportación o reporte; 202 con el ID para consultar el avance
+    @PostMapping
+    public ResponseEntity<JobResponseDto> create(@Valid @RequestBody CreateJobDto dto) {
+        JobResponseDto job = jobService.create(dto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/jobs/" + job.id)
+                .body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JobResponseDto>> findAll() {
+        return ResponseEntity.ok(jobService.findAll());
+    }
+
+    // GET /api/jobs/{id} - Estado y progreso
+    @GetMapping("/{id}")
+    public ResponseEntity<JobResponseDto> findById(@PathVariable String id) {
+        return ResponseEntity.ok(jobService.findById(id));
+    }
+
+    // GET /api/jobs/{id}/result - Descarga del archivo (409 si aún no terminó)
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> downloadResult(@PathVariable String id) {
+        JobResponseDto job = jobService.findById(id);
+        Resource result = jobService.getResult(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.type + "-" + job.id + ".json")
+                        .build()
+                        .toString())
+                .body(result);
+    }
+
+    // DELETE /api/jobs/{id} - Cancela (en cola o en ejecución) o elimina un trabajo terminado
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        jobService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+}
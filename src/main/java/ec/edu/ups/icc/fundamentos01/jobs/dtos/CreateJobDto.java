@@ -0,0 +1,30 @@
+package ec.edu.ups.icc.fundamentos01.jobs.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Cuerpo de POST /api/jobs.
+ *
+ * type: products-export | category-stats | user-inventory
+ * priority: high | normal | low (opcional, normal por defecto)
+ *
+ * products-export usa los filtros y el orden (sort/direction como en los listados);
+ * user-inventory acepta ownerId para un solo usuario; category-stats no usa filtros.
+ */
+public class CreateJobDto {
+
+    @NotBlank(message = "El tipo de trabajo es obligatorio")
+    public String type;
+
+    public String priority;
+
+    // ============== FILTROS ==============
+
+    public Long ownerId;
+    public Long categoryId;
+    public String name;
+    public Double minPrice;
+    public Double maxPrice;
+    public String sort;
+    public String direction;
+}
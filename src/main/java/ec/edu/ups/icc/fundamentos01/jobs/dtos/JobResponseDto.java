@@ -0,0 +1,28 @@
+package ec.edu.ups.icc.fundamentos01.jobs.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de un trabajo en segundo plano (GET /api/jobs/{id}).
+ * total es null cuando no se conoce de antemano; resultUrl solo con status COMPLETED.
+ */
+public class JobResponseDto {
+
+    public String id;
+    public String type;
+    public String priority;
+    public String status; // QUEUED | RUNNING | COMPLETED | FAILED | CANCELLED
+
+    public long processed;
+    public Long total;
+    public Double progress; // 0..1
+
+    public String error;
+    public String resultUrl;
+    public Long resultBytes;
+
+    public LocalDateTime createdAt;
+    public LocalDateTime startedAt;
+    public LocalDateTime finishedAt;
+    public LocalDateTime expiresAt;
+}
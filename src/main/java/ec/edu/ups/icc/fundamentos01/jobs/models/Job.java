@@ -0,0 +1,195 @@
+package ec.edu.ups.icc.fundamentos01.jobs.models;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.CreateJobDto;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.JobResponseDto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Trabajo en segundo plano: parámetros, estado y archivo de resultado.
+ *
+ * Las transiciones son sincronizadas; el progreso (processed) lo escribe solo
+ * el hilo que ejecuta el trabajo y se lee sin bloquear.
+ */
+public class Job {
+
+    public enum Type {
+        PRODUCTS_EXPORT("products-export"),
+        CATEGORY_STATS("category-stats"),
+        USER_INVENTORY("user-inventory");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        public static Type parse(String value) {
+            for (Type type : values()) {
+                if (type.value.equalsIgnoreCase(value.trim())) {
+                    return type;
+                }
+            }
+            throw new BadRequestException("Tipo de trabajo desconocido: " + value
+                    + ". Valores permitidos: products-export, category-stats, user-inventory");
+        }
+    }
+
+    // En orden de prioridad: HIGH se atiende primero
+    public enum Priority {
+        HIGH, NORMAL, LOW;
+
+        public static Priority parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NORMAL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("priority debe ser high, normal o low");
+            }
+        }
+    }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Type type;
+    private final Priority priority;
+    private final CreateJobDto params;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private Status status = Status.QUEUED;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private Path result;
+    private long resultBytes;
+
+    private volatile boolean cancelRequested;
+    private volatile long processed;
+    private volatile Long total;
+
+    public Job(Type type, Priority priority, CreateJobDto params) {
+        this.type = type;
+        this.priority = priority;
+        this.params = params;
+    }
+
+    public String getId() { return id; }
+    public Type getType() { return type; }
+    public Priority getPriority() { return priority; }
+    public CreateJobDto getParams() { return params; }
+
+    public synchronized Status getStatus() { return status; }
+    public synchronized Path getResult() { return result; }
+    public synchronized LocalDateTime getFinishedAt() { return finishedAt; }
+
+    // ============== TRANSICIONES ==============
+
+    /**
+     * false si se canceló mientras estaba en cola
+     */
+    public synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    public synchronized void complete(Path file, long bytes) {
+        status = Status.COMPLETED;
+        result = file;
+        resultBytes = bytes;
+        finishedAt = LocalDateTime.now();
+    }
+
+    public synchronized void fail(String message) {
+        status = Status.FAILED;
+        error = message;
+        finishedAt = LocalDateTime.now();
+    }
+
+    /**
+     * En cola: se cancela de inmediato. En ejecución: se marca y el hilo lo
+     * detecta en el siguiente elemento (checkCancelled).
+     *
+     * @return true si el trabajo todavía no había terminado
+     */
+    public synchronized boolean cancel() {
+        switch (status) {
+            case QUEUED -> {
+                status = Status.CANCELLED;
+                finishedAt = LocalDateTime.now();
+                return true;
+            }
+            case RUNNING -> {
+                cancelRequested = true;
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    public synchronized void cancelled() {
+        status = Status.CANCELLED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    // ============== PROGRESO (hilo del trabajo) ==============
+
+    public void checkCancelled() {
+        if (cancelRequested) {
+            throw new CancellationException("Trabajo cancelado");
+        }
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Un elemento más escrito; también es el punto de cancelación
+     */
+    public void advance() {
+        checkCancelled();
+        processed++;
+    }
+
+    public synchronized JobResponseDto toDto(Duration retention) {
+        JobResponseDto dto = new JobResponseDto();
+        dto.id = id;
+        dto.type = type.value();
+        dto.priority = priority.name().toLowerCase(Locale.ROOT);
+        dto.status = status.name();
+        dto.processed = processed;
+        dto.total = total;
+        if (total != null) {
+            dto.progress = status == Status.COMPLETED || total == 0 ? 1.0 : Math.min(1.0, (double) processed / total);
+        }
+        dto.error = error;
+        if (status == Status.COMPLETED) {
+            dto.resultUrl = "/api/jobs/" + id + "/result";
+            dto.resultBytes = resultBytes;
+        }
+        dto.createdAt = createdAt;
+        dto.startedAt = startedAt;
+        dto.finishedAt = finishedAt;
+        dto.expiresAt = finishedAt != null ? finishedAt.plus(retention) : null;
+        return dto;
+    }
+}
@@ -0,0 +1,184 @@
+package ec.edu.ups.icc.fundamentos01.jobs.services;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.CreateJobDto;
+import ec.edu.ups.icc.fundamentos01.jobs.models.Job;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductViewRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.streaming.JsonStreamWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Contenido de cada tipo de trabajo, escrito elemento por elemento en un
+ * JsonGenerator (arreglo JSON). Se llama dentro de una transacción de solo
+ * lectura; cada elemento es un punto de cancelación.
+ */
+@Component
+public class JobReportWriter {
+
+    private final ProductViewRepository viewRepo;
+    private final CategoryRepository categoryRepo;
+    private final ProductService productService;
+    private final EntityManager entityManager;
+
+    public JobReportWriter(
+            ProductViewRepository viewRepo,
+            CategoryRepository categoryRepo,
+            ProductService productService,
+            EntityManager entityManager) {
+        this.viewRepo = viewRepo;
+        this.categoryRepo = categoryRepo;
+        this.productService = productService;
+        this.entityManager = entityManager;
+    }
+
+    public void write(Job job, JsonGenerator out) {
+        switch (job.getType()) {
+            case PRODUCTS_EXPORT -> writeProducts(job, out);
+            case CATEGORY_STATS -> writeCategoryStats(job, out);
+            case USER_INVENTORY -> writeUserInventory(job, out);
+        }
+    }
+
+    /**
+     * Productos que cumplen el filtro, en el orden pedido (misma forma que GET /api/products)
+     */
+    private void writeProducts(Job job, JsonGenerator out) {
+        CreateJobDto params = job.getParams();
+        ProductFilter filter = ProductFilter.all();
+        filter.ownerId = params.ownerId;
+        filter.categoryId = params.categoryId;
+        filter.name = params.name;
+        filter.minPrice = params.minPrice;
+        filter.maxPrice = params.maxPrice;
+
+        job.setTotal(count(filter));
+
+        out.writeStartArray();
+        long written = 0;
+        try (Stream<ProductViewEntity> rows = viewRepo.streamFiltered(filter, ProductSort.parse(params.sort, params.direction, null))) {
+            Iterator<ProductViewEntity> it = rows.iterator();
+            while (it.hasNext()) {
+                out.writePOJO(ProductMapper.toResponseDto(it.next()));
+                job.advance();
+                releaseEvery(++written, out);
+            }
+        }
+        out.writeEndArray();
+    }
+
+    /**
+     * Estadísticas de precio de cada categoría, ordenadas por nombre
+     */
+    private void writeCategoryStats(Job job, JsonGenerator out) {
+        List<CategoryEntity> categories = categoryRepo.findAll(Sort.by("name"));
+        job.setTotal(categories.size());
+
+        out.writeStartArray();
+        for (CategoryEntity category : categories) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("categoryId", category.getId());
+            row.put("name", category.getName());
+            row.put("stats", productService.priceStatsByCategory(category.getId()));
+            out.writePOJO(row);
+            job.advance();
+        }
+        out.writeEndArray();
+    }
+
+    /**
+     * Un objeto por usuario con productos: datos del dueño, sus productos y
+     * los totales. Se recorre product_view ordenada por dueño, así solo hay
+     * un usuario abierto a la vez (los usuarios sin productos no aparecen).
+     */
+    private void writeUserInventory(Job job, JsonGenerator out) {
+        Long ownerId = job.getParams().ownerId;
+        ProductFilter filter = ownerId != null ? ProductFilter.byOwner(ownerId) : ProductFilter.all();
+        job.setTotal(count(filter));
+
+        out.writeStartArray();
+        long written = 0;
+        Long currentOwner = null;
+        long count = 0;
+        double totalValue = 0;
+
+        try (Stream<ProductViewEntity> rows = ownerId != null
+                ? viewRepo.streamByOwnerId(ownerId, Sort.by("id"))
+                : viewRepo.streamAll(Sort.by("ownerId", "id"))) {
+            Iterator<ProductViewEntity> it = rows.iterator();
+            while (it.hasNext()) {
+                ProductViewEntity product = it.next();
+
+                if (!Objects.equals(currentOwner, product.getOwnerId())) {
+                    if (currentOwner != null) {
+                        closeOwner(out, count, totalValue);
+                    }
+                    currentOwner = product.getOwnerId();
+                    count = 0;
+                    totalValue = 0;
+
+                    Map<String, Object> owner = new LinkedHashMap<>();
+                    owner.put("id", product.getOwnerId());
+                    owner.put("name", product.getOwnerName());
+                    owner.put("email", product.getOwnerEmail());
+                    out.writeStartObject();
+                    out.writeName("user");
+                    out.writePOJO(owner);
+                    out.writeName("products");
+                    out.writeStartArray();
+                }
+
+                out.writePOJO(ProductMapper.toResponseDto(product));
+                count++;
+                totalValue += product.getPrice();
+                job.advance();
+                releaseEvery(++written, out);
+            }
+        }
+        if (currentOwner != null) {
+            closeOwner(out, count, totalValue);
+        }
+        out.writeEndArray();
+    }
+
+    private static void closeOwner(JsonGenerator out, long count, double totalValue) {
+        out.writeEndArray();
+        out.writeName("productCount");
+        out.writeNumber(count);
+        out.writeName("totalValue");
+        out.writeNumber(totalValue);
+        out.writeEndObject();
+    }
+
+    /**
+     * Igual que JsonStreamWriter: vacía el generador y el contexto de persistencia
+     * para que la memoria no crezca con el resultado
+     */
+    private void releaseEvery(long written, JsonGenerator out) {
+        if (written % JsonStreamWriter.FLUSH_EVERY == 0) {
+            out.flush();
+            entityManager.clear();
+        }
+    }
+
+    // Con un solo borde hay dos buckets (< 0 y >= 0) que suman todas las filas del filtro
+    private long count(ProductFilter filter) {
+        return Arrays.stream(viewRepo.countByPriceBucket(filter, List.of(0.0))).sum();
+    }
+}
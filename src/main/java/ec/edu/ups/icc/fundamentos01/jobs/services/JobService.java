@@ -0,0 +1,24 @@
+package ec.edu.ups.icc.fundamentos01.jobs.services;
+
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.CreateJobDto;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.JobResponseDto;
+import org.springframework.core.io.Resource;
+
+import java.util.List;
+
+public interface JobService {
+
+    // Valida y encola el trabajo; responde de inmediato con status QUEUED
+    JobResponseDto create(CreateJobDto dto);
+
+    JobResponseDto findById(String id);
+
+    // Trabajos conocidos (en cola, en ejecución y terminados aún no expirados), más recientes primero
+    List<JobResponseDto> findAll();
+
+    // Archivo del resultado; solo para trabajos COMPLETED
+    Resource getResult(String id);
+
+    // En cola o en ejecución: se cancela. Terminado: se elimina junto con su resultado
+    void cancel(String id);
+}
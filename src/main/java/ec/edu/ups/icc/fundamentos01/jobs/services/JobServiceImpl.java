@@ -0,0 +1,296 @@
+package ec.edu.ups.icc.fundamentos01.jobs.services;
+
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ServiceUnavailableException;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.CreateJobDto;
+import ec.edu.ups.icc.fundamentos01.jobs.dtos.JobResponseDto;
+import ec.edu.ups.icc.fundamentos01.jobs.models.Job;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trabajos en segundo plano (exportaciones y reportes) fuera de los hilos de Tomcat.
+ *
+ * Un pool fijo de worker-threads toma los trabajos de una cola por prioridad
+ * (high, normal, low; FIFO dentro de cada una). La cola admite hasta
+ * max-queued trabajos; con la cola llena se responde 503.
+ *
+ * El resultado se escribe en streaming a un archivo .part en app.jobs.dir y se
+ * renombra al terminar, así una descarga nunca ve un archivo a medias. Los
+ * trabajos terminados (y sus archivos) se eliminan pasado el tiempo de
+ * retención; al arrancar se borran los archivos de ejecuciones anteriores.
+ *
+ * Métricas: jobs.queue.depth, jobs.active y jobs.duration (type, status).
+ */
+@Service
+public class JobServiceImpl implements JobService {
+
+    private final JobReportWriter reportWriter;
+    private final UserRepository userRepo;
+    private final CategoryRepository categoryRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry registry;
+
+    private final Path directory;
+    private final Duration retention;
+    private final int maxQueued;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService cleaner;
+
+    public JobServiceImpl(
+            JobReportWriter reportWriter,
+            UserRepository userRepo,
+            CategoryRepository categoryRepo,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${app.jobs.dir:./data/jobs}") Path directory,
+            @Value("${app.jobs.worker-threads:2}") int workerThreads,
+            @Value("${app.jobs.max-queued:100}") int maxQueued,
+            @Value("${app.jobs.retention:1h}") Duration retention,
+            @Value("${app.jobs.cleanup-interval:1m}") Duration cleanupInterval
+    ) throws IOException {
+        this.reportWriter = reportWriter;
+        this.userRepo = userRepo;
+        this.categoryRepo = categoryRepo;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.registry = registry;
+        this.directory = directory.toAbsolutePath();
+        this.retention = retention;
+        this.maxQueued = maxQueued;
+
+        // Los trabajos viven en memoria: los archivos de una ejecución anterior ya no tienen dueño
+        Files.createDirectories(this.directory);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.directory, "*.{json,part}")) {
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        // PriorityBlockingQueue: cada tarea es Comparable (ver JobTask); se usa execute, no submit
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "job-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long cleanupMillis = cleanupInterval.toMillis();
+        cleaner.scheduleAtFixedRate(this::removeExpired, cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
+
+        registry.gauge("jobs.queue.depth", workers, pool -> pool.getQueue().size());
+        registry.gauge("jobs.active", workers, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public JobResponseDto create(CreateJobDto dto) {
+        // 1. VALIDAR antes de encolar: los errores se responden en la petición, no en el trabajo
+        Job.Type type = Job.Type.parse(dto.type);
+        Job.Priority priority = Job.Priority.parse(dto.priority);
+
+        if (type == Job.Type.PRODUCTS_EXPORT) {
+            ProductSort.parse(dto.sort, dto.direction, null);
+            if (dto.minPrice != null && dto.maxPrice != null && dto.minPrice > dto.maxPrice) {
+                throw new BadRequestException("minPrice no puede ser mayor que maxPrice");
+            }
+            if (dto.categoryId != null && !categoryRepo.existsById(dto.categoryId)) {
+                throw new NotFoundException("Categoría no encontrada con ID: " + dto.categoryId);
+            }
+        }
+        if (type != Job.Type.CATEGORY_STATS && dto.ownerId != null && !userRepo.existsById(dto.ownerId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + dto.ownerId);
+        }
+
+        // 2. ENCOLAR (la verificación y el execute juntos, para no pasar de max-queued)
+        Job job = new Job(type, priority, dto);
+        synchronized (workers) {
+            if (workers.getQueue().size() >= maxQueued) {
+                throw new ServiceUnavailableException("Hay demasiados trabajos en cola, intente más tarde");
+            }
+            jobs.put(job.getId(), job);
+            workers.execute(new JobTask(job, sequence.incrementAndGet()));
+        }
+        return job.toDto(retention);
+    }
+
+    @Override
+    public JobResponseDto findById(String id) {
+        return find(id).toDto(retention);
+    }
+
+    @Override
+    public List<JobResponseDto> findAll() {
+        return jobs.values().stream()
+                .map(job -> job.toDto(retention))
+                .sorted(Comparator.comparing((JobResponseDto dto) -> dto.createdAt).reversed())
+                .toList();
+    }
+
+    @Override
+    public Resource getResult(String id) {
+        Job job = find(id);
+        if (job.getStatus() != Job.Status.COMPLETED) {
+            throw new ConflictException("El trabajo " + id + " no tiene resultado (estado " + job.getStatus() + ")");
+        }
+        return new FileSystemResource(job.getResult());
+    }
+
+    @Override
+    public void cancel(String id) {
+        Job job = find(id);
+        if (!job.cancel()) {
+            remove(job);
+        }
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("Trabajo no encontrado: " + id);
+        }
+        return job;
+    }
+
+    // ============== EJECUCIÓN ==============
+
+    /**
+     * Orden de la cola: prioridad y luego orden de llegada
+     */
+    private final class JobTask implements Runnable, Comparable<JobTask> {
+
+        private final Job job;
+        private final long sequence;
+
+        JobTask(Job job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            execute(job);
+        }
+    }
+
+    private void execute(Job job) {
+        // Cancelado mientras esperaba en la cola
+        if (!job.start()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Path part = directory.resolve(job.getId() + ".part");
+        Path file = directory.resolve(job.getId() + ".json");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 1 << 16);
+                 JsonGenerator generator = objectMapper.createGenerator(out)) {
+                readOnlyTransaction.executeWithoutResult(status -> reportWriter.write(job, generator));
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(file, Files.size(file));
+        } catch (CancellationException e) {
+            job.cancelled();
+        } catch (IOException | UncheckedIOException e) {
+            job.fail("Error escribiendo el resultado: " + e.getMessage());
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(part);
+            Timer.builder("jobs.duration")
+                    .tag("type", job.getType().value())
+                    .tag("status", job.getStatus().name())
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ============== RETENCIÓN ==============
+
+    private void removeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+        for (Job job : jobs.values()) {
+            LocalDateTime finishedAt = job.getFinishedAt();
+            if (finishedAt != null && finishedAt.isBefore(limit)) {
+                remove(job);
+            }
+        }
+    }
+
+    private void remove(Job job) {
+        jobs.remove(job.getId());
+        if (job.getResult() != null) {
+            deleteQuietly(job.getResult());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo borrar " + file + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -1,35 +1,110 @@
 package ec.edu.ups.icc.fundamentos01.products.controllers;
 
+import ec.edu.ups.icc.fundamentos01.concurrency.IdempotencyStore;
 import ec.edu.ups.icc.fundamentos01.products.dtos.*;
+import ec.edu.ups.icc.fundamentos01.products.imports.ProductCsvImporter;
 import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.SnapshotQuery;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEventBroadcaster;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogEventBroadcaster eventBroadcaster;
+    private final ProductCsvImporter csvImporter;
+    private final IdempotencyStore idempotency;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            CatalogEventBroadcaster eventBroadcaster,
+            ProductCsvImporter csvImporter,
+            IdempotencyStore idempotency) {
         this.productService = productService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.csvImporter = csvImporter;
+        this.idempotency = idempotency;
     }
 
+    // Idempotency-Key (opcional): un reintento con la misma clave devuelve la respuesta original
     @PostMapping
-    public ResponseEntity<ProductResponseDto> create(@Valid @RequestBody CreateProductDto dto) {
-        ProductResponseDto created = productService.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<ProductResponseDto> create(
+            @Valid @RequestBody CreateProductDto dto,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotency.execute("POST /api/products", idempotencyKey, dto, () -> productService.create(dto))
+                .toResponse(HttpStatus.CREATED);
     }
 
+    // ============== ORDEN Y TOP-N (?sort=price|name|createdAt&direction=asc|desc&limit=N) ==============
+    // Aplican a todos los listados; el ORDER BY y el LIMIT se resuelven en SQL.
+    // Ej: GET /api/products/category/3?sort=price&limit=10 - los 10 más baratos de la categoría
+
     @GetMapping
-    public ResponseEntity<List<ProductResponseDto>> findAll() {
-        List<ProductResponseDto> products = productService.findAll();
+    public ResponseEntity<List<ProductResponseDto>> findAll(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<ProductResponseDto> products = productService.findAll(ProductSort.parse(sort, direction, limit));
         return ResponseEntity.ok(products);
     }
 
+    // GET /api/products?ids=1,2,3 - Varios productos en una sola consulta
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatchResponseDto> findByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.findByIds(ids));
+    }
+
+    // GET /api/products/changes?since=0&limit=100 - Cambios del catálogo para sincronización incremental
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponseDto> findChanges(
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return ResponseEntity.ok(productService.findChanges(since, limit));
+    }
+
+    // GET /api/products/analytics/price-stats?minPrice=&maxPrice=&categoryIds=1,2&match=any|all&ownerId=&name=
+    // count/min/max/avg calculados sobre el snapshot en memoria (requiere app.snapshot.enabled)
+    @GetMapping("/analytics/price-stats")
+    public ResponseEntity<PriceStatsDto> snapshotPriceStats(
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Set<Long> categoryIds,
+            @RequestParam(defaultValue = "any") String match
+    ) {
+        SnapshotQuery query = new SnapshotQuery();
+        query.ownerId = ownerId;
+        query.name = name;
+        query.minPrice = minPrice;
+        query.maxPrice = maxPrice;
+        query.categoryIds = categoryIds;
+        query.allCategories = "all".equalsIgnoreCase(match);
+        return ResponseEntity.ok(productService.snapshotPriceStats(query));
+    }
+
+    // GET /api/products/stream - Eventos SSE de productos y categorías al confirmarse cada cambio
+    // overflow (opcional): drop-oldest | disconnect cuando el cliente no alcanza a leer
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String overflow) {
+        return eventBroadcaster.subscribe(overflow);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDto> findById(@PathVariable Long id) {
         ProductResponseDto product = productService.findById(id);
@@ -37,17 +112,104 @@ public class ProductController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ProductResponseDto>> findByUserId(@PathVariable Long userId) {
-        List<ProductResponseDto> products = productService.findByUserId(userId);
+    public ResponseEntity<List<ProductResponseDto>> findByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<ProductResponseDto> products = productService.findByUserId(userId, ProductSort.parse(sort, direction, limit));
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductResponseDto>> findByCategoryId(@PathVariable Long categoryId) {
-        List<ProductResponseDto> products = productService.findByCategoryId(categoryId);
+    public ResponseEntity<List<ProductResponseDto>> findByCategoryId(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<ProductResponseDto> products = productService.findByCategoryId(categoryId, ProductSort.parse(sort, direction, limit));
         return ResponseEntity.ok(products);
     }
 
+    // ============== CAMPOS PARCIALES (?fields=id,name,price) ==============
+    // Solo se consultan y devuelven los campos pedidos
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> findAllFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(productService.findFields(ProductFilter.all(), ProductSort.parse(sort, direction, limit), fields));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> findByIdFields(
+            @PathVariable Long id,
+            @RequestParam String fields
+    ) {
+        return ResponseEntity.ok(productService.findByIdFields(id, fields));
+    }
+
+    @GetMapping(value = "/user/{userId}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> findByUserIdFields(
+            @PathVariable Long userId,
+            @RequestParam String fields,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(productService.findFields(
+                ProductFilter.byOwner(userId), ProductSort.parse(sort, direction, limit), fields));
+    }
+
+    @GetMapping(value = "/category/{categoryId}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> findByCategoryIdFields(
+            @PathVariable Long categoryId,
+            @RequestParam String fields,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(productService.findFields(
+                ProductFilter.byCategory(categoryId), ProductSort.parse(sort, direction, limit), fields));
+    }
+
+    // ============== MODO STREAMING (?stream=true) ==============
+    // El JSON se escribe producto por producto sin construir la lista completa
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction
+    ) {
+        ProductSort order = ProductSort.parse(sort, direction, null);
+        return streaming(out -> productService.streamAll(order, out));
+    }
+
+    @GetMapping(value = "/user/{userId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction
+    ) {
+        ProductSort order = ProductSort.parse(sort, direction, null);
+        return streaming(out -> productService.streamByUserId(userId, order, out));
+    }
+
+    @GetMapping(value = "/category/{categoryId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByCategoryId(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction
+    ) {
+        ProductSort order = ProductSort.parse(sort, direction, null);
+        return streaming(out -> productService.streamByCategoryId(categoryId, order, out));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDto> update(
             @PathVariable Long id,
@@ -57,9 +219,55 @@ public class ProductController {
         return ResponseEntity.ok(updated);
     }
 
+    // POST /api/products/bulk-reprice - Ajuste masivo de precios por categoría y/o dueño
+    @PostMapping("/bulk-reprice")
+    public ResponseEntity<BulkRepriceResponseDto> bulkReprice(@RequestBody BulkRepriceDto dto) {
+        return ResponseEntity.ok(productService.bulkReprice(dto));
+    }
+
+    // POST /api/products/import - Importación CSV leída a medida que llega (cuerpo text/csv, sin multipart)
+    // ?jobId= reanuda una importación fallida reenviando el mismo archivo
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ProductImportResponseDto> importCsv(
+            InputStream body,
+            @RequestParam(required = false) String jobId
+    ) {
+        ProductImportResponseDto result = csvImporter.importCsv(body, jobId);
+        // FAILED: lo confirmado hasta committedLine queda guardado; se puede reanudar
+        HttpStatus status = "COMPLETED".equals(result.status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportResponseDto> importStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(csvImporter.status(jobId));
+    }
+
+    // POST /api/products/view/rebuild - Reconstruye el modelo de lectura (product_view) desde products
+    @PostMapping("/view/rebuild")
+    public ResponseEntity<ProductViewRebuildResponseDto> rebuildView() {
+        return ResponseEntity.ok(productService.rebuildView());
+    }
+
+    // PATCH: solo se actualizan los campos presentes en el body
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductResponseDto> partialUpdate(
+            @PathVariable Long id,
+            @Valid @RequestBody PartialUpdateProductDto dto
+    ) {
+        ProductResponseDto updated = productService.partialUpdate(id, dto);
+        return ResponseEntity.ok(updated);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
+
+    private ResponseEntity<StreamingResponseBody> streaming(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+/**
+ * Avance de un borrado masivo; se emite una línea por bloque y una final (done = true)
+ */
+public class BulkDeleteProgressDto {
+
+    public int chunk;
+    public int deletedInChunk;
+    public long totalDeleted;
+    public boolean done;
+    public long elapsedMillis;
+}
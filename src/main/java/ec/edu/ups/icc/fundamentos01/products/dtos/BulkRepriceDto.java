@@ -0,0 +1,19 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.Set;
+
+/**
+ * Ajuste masivo de precios.
+ * Se indica exactamente uno de: percentage (ej. 10 = +10%, -5 = -5%) o amount (delta absoluto).
+ * Filtros: categoryIds y/o userId (al menos uno es obligatorio).
+ */
+public class BulkRepriceDto {
+
+    public Double percentage;
+    public Double amount;
+
+    // ============== FILTROS ==============
+
+    public Set<Long> categoryIds;
+    public Long userId;
+}
@@ -0,0 +1,8 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+public class BulkRepriceResponseDto {
+
+    public long affectedRows;
+    public int chunks;
+    public long elapsedMillis;
+}
@@ -3,6 +3,8 @@ package ec.edu.ups.icc.fundamentos01.products.dtos;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 
+import java.util.Set;
+
 public class PartialUpdateProductDto {
     
     @Size(min = 3, max = 100)
@@ -16,6 +18,10 @@ public class PartialUpdateProductDto {
     @Min(value = 0)
     private Integer stock;
 
+    // null = no tocar las categorías; si viene, reemplaza el conjunto (se aplica como diff)
+    @Size(min = 1, message = "El producto debe tener al menos una categoría")
+    private Set<Long> categoryIds;
+
     public PartialUpdateProductDto() {}
 
     // Getters y Setters...
@@ -27,4 +33,6 @@ public class PartialUpdateProductDto {
     public void setPrice(Double price) { this.price = price; }
     public Integer getStock() { return stock; }
     public void setStock(Integer stock) { this.stock = stock; }
+    public Set<Long> getCategoryIds() { return categoryIds; }
+    public void setCategoryIds(Set<Long> categoryIds) { this.categoryIds = categoryIds; }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+/**
+ * Estadísticas de precio de un conjunto de productos (categoría o dueño).
+ * Con count = 0 el resto de campos es null.
+ */
+public class PriceStatsDto {
+
+    public long count;
+    public Double minPrice;
+    public Double maxPrice;
+    public Double avgPrice;
+    public Double p50;
+    public Double p90;
+    public Double p99;
+}
@@ -0,0 +1,13 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/products?ids=...
+ * products conserva el orden pedido; missingIds lista los IDs que no existen.
+ */
+public class ProductBatchResponseDto {
+
+    public List<ProductResponseDto> products;
+    public List<Long> missingIds;
+}
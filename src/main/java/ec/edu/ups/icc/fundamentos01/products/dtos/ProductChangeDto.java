@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un cambio del feed. type = UPSERT trae el producto actual;
+ * type = DELETE es una lápida (product = null).
+ */
+public class ProductChangeDto {
+
+    public Long seq;
+    public Long productId;
+    public String type;
+    public LocalDateTime changedAt;
+    public ProductResponseDto product;
+}
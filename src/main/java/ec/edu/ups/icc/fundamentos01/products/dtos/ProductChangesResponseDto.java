@@ -0,0 +1,15 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/products/changes?since=...
+ * nextCursor se envía como since en la siguiente llamada (igual a since si no hubo cambios).
+ * hasMore indica que hay más cambios disponibles de inmediato.
+ */
+public class ProductChangesResponseDto {
+
+    public List<ProductChangeDto> changes;
+    public Long nextCursor;
+    public boolean hasMore;
+}
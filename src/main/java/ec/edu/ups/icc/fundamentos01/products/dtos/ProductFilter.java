@@ -0,0 +1,52 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+/**
+ * Criterios de búsqueda de productos para las consultas con proyección.
+ * Los campos null no filtran.
+ */
+public class ProductFilter {
+
+    public Long id;
+    public Long ownerId;
+    public Long categoryId;
+    public String name;
+    public Double minPrice;
+    public Double maxPrice;
+
+    public static ProductFilter all() {
+        return new ProductFilter();
+    }
+
+    public static ProductFilter byId(Long id) {
+        ProductFilter filter = new ProductFilter();
+        filter.id = id;
+        return filter;
+    }
+
+    public static ProductFilter byOwner(Long ownerId) {
+        ProductFilter filter = new ProductFilter();
+        filter.ownerId = ownerId;
+        return filter;
+    }
+
+    public static ProductFilter byCategory(Long categoryId) {
+        ProductFilter filter = new ProductFilter();
+        filter.categoryId = categoryId;
+        return filter;
+    }
+
+    public static ProductFilter byOwnerWithFilters(
+            Long ownerId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId
+    ) {
+        ProductFilter filter = byOwner(ownerId);
+        filter.name = name;
+        filter.minPrice = minPrice;
+        filter.maxPrice = maxPrice;
+        filter.categoryId = categoryId;
+        return filter;
+    }
+}
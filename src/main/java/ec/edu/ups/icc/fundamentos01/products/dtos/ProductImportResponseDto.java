@@ -0,0 +1,41 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Estado de una importación CSV (POST /api/products/import, GET /api/products/import/{jobId}).
+ *
+ * committedLine es la última línea cuyo lote quedó confirmado: al reenviar el
+ * archivo con ?jobId= se continúa después de ella. errors se limita a los
+ * primeros errores (errorsTruncated indica que hubo más); failed los cuenta todos.
+ */
+public class ProductImportResponseDto {
+
+    public String jobId;
+    public String status; // RUNNING | COMPLETED | FAILED
+    public String failureReason;
+
+    public long linesRead;
+    public long imported;
+    public long failed;
+    public long skipped; // registros ya confirmados en un intento anterior
+    public long committedLine;
+
+    public long elapsedMillis;
+    public double rowsPerSecond;
+
+    public List<LineErrorDto> errors;
+    public boolean errorsTruncated;
+
+    public static class LineErrorDto {
+        public long line;
+        public String message;
+
+        public LineErrorDto() {}
+
+        public LineErrorDto(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
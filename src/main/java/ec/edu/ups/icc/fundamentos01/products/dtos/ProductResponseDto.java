@@ -5,6 +5,15 @@ import java.util.List;
 
 public class ProductResponseDto {
 
+    /**
+     * Campos que se pueden pedir con ?fields= (en este orden se devuelven)
+     */
+    public static final List<String> FIELDS = List.of(
+            "id", "name", "price", "description",
+            "user", "categories", "category",
+            "createdAt", "updatedAt"
+    );
+
     public Long id;
     public String name;
     public Double price;
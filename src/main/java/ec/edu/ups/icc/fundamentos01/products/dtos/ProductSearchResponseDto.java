@@ -0,0 +1,32 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de la búsqueda con facetas (GET /api/users/{id}/products-v2?facets=true).
+ * total y las facetas se calculan sobre todo el filtro, no solo sobre la página.
+ */
+public class ProductSearchResponseDto {
+
+    public List<ProductResponseDto> products;
+    public int page;
+    public int size;
+    public long total;
+    public List<CategoryFacetDto> categoryFacets;
+    public List<PriceBucketDto> priceBuckets;
+
+    public static class CategoryFacetDto {
+        public Long id;
+        public String name;
+        public long count;
+    }
+
+    /**
+     * Rango [from, to); from = null en el primer bucket y to = null en el último
+     */
+    public static class PriceBucketDto {
+        public Double from;
+        public Double to;
+        public long count;
+    }
+}
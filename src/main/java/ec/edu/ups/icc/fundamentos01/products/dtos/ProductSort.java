@@ -0,0 +1,120 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+/**
+ * Orden y límite de los listados de productos (?sort=price&direction=desc&limit=10).
+ *
+ * El orden se aplica en SQL y siempre termina en id (misma dirección) para que
+ * sea estable y coincida con los índices compuestos (columna, id) de products:
+ * con limit, la base de datos lee solo las primeras N entradas del índice.
+ */
+public final class ProductSort {
+
+    public static final int MAX_LIMIT = 1000;
+
+    // Valor de ?sort= -> propiedad de ProductEntity
+    private static final Map<String, String> PROPERTIES = Map.of(
+            "price", "price",
+            "name", "name",
+            "createdAt", "createdAt"
+    );
+
+    private static final ProductSort BY_ID = new ProductSort(null, false, null);
+
+    private final String property; // null = solo por id
+    private final boolean descending;
+    private final Integer limit;   // null = sin límite
+
+    private ProductSort(String property, boolean descending, Integer limit) {
+        this.property = property;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    /**
+     * Orden por defecto: id ascendente, sin límite
+     */
+    public static ProductSort byId() {
+        return BY_ID;
+    }
+
+    /**
+     * Valida los parámetros; todos son opcionales
+     */
+    public static ProductSort parse(String sort, String direction, Integer limit) {
+        String property = null;
+        if (sort != null && !sort.isBlank()) {
+            property = PROPERTIES.get(sort.trim());
+            if (property == null) {
+                throw new BadRequestException(
+                        "Orden desconocido: " + sort + ". Valores permitidos: " + String.join(",", PROPERTIES.keySet())
+                );
+            }
+        }
+
+        boolean descending = false;
+        if (direction != null && !direction.isBlank()) {
+            switch (direction.trim().toLowerCase()) {
+                case "asc" -> descending = false;
+                case "desc" -> descending = true;
+                default -> throw new BadRequestException("direction debe ser asc o desc");
+            }
+        }
+
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new BadRequestException("limit debe estar entre 1 y " + MAX_LIMIT);
+        }
+
+        if (property == null && !descending && limit == null) {
+            return BY_ID;
+        }
+        return new ProductSort(property, descending, limit);
+    }
+
+    public boolean isDefault() {
+        return this == BY_ID;
+    }
+
+    public boolean hasLimit() {
+        return limit != null;
+    }
+
+    public Integer limit() {
+        return limit;
+    }
+
+    /**
+     * Para repositorios de Spring Data
+     */
+    public Sort toSort() {
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return property == null
+                ? Sort.by(dir, "id")
+                : Sort.by(dir, property).and(Sort.by(dir, "id"));
+    }
+
+    public Limit toLimit() {
+        return limit == null ? Limit.unlimited() : Limit.of(limit);
+    }
+
+    /**
+     * Para consultas JPQL armadas a mano; alias es la variable de ProductEntity
+     */
+    public String toJpql(String alias) {
+        String dir = descending ? " DESC" : " ASC";
+        String byId = alias + ".id" + dir;
+        return " ORDER BY " + (property == null ? byId : alias + "." + property + dir + ", " + byId);
+    }
+
+    /**
+     * Parte de la clave de coalescencia (SingleFlight)
+     */
+    public String key() {
+        return (property == null ? "id" : property) + (descending ? ":desc" : ":asc") + ":" + (limit == null ? "all" : limit);
+    }
+}
@@ -0,0 +1,7 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+public class ProductViewRebuildResponseDto {
+
+    public long projected;
+    public long elapsedMillis;
+}
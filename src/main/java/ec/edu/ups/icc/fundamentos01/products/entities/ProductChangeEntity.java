@@ -0,0 +1,55 @@
+package ec.edu.ups.icc.fundamentos01.products.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de cambios del catálogo (change feed).
+ *
+ * Cada alta, modificación o borrado de un producto agrega una fila con un
+ * número de secuencia creciente (seq). Los consumidores piden los cambios
+ * con seq > cursor y se sincronizan en O(cambios) en lugar de O(catálogo).
+ * seq es la clave primaria, así que la consulta del feed recorre su índice.
+ */
+@Entity
+@Table(name = "product_changes")
+public class ProductChangeEntity {
+
+    public enum Type { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public ProductChangeEntity() {}
+
+    public ProductChangeEntity(Long productId, Type type, LocalDateTime changedAt) {
+        this.productId = productId;
+        this.type = type;
+        this.changedAt = changedAt;
+    }
+
+    // Getters y Setters
+    public Long getSeq() { return seq; }
+    public void setSeq(Long seq) { this.seq = seq; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+}
@@ -4,12 +4,14 @@ import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.entities.BaseModel;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products") // Los índices para listados ordenados están en product_view
+@DynamicUpdate // El UPDATE solo incluye las columnas que cambiaron
 public class ProductEntity extends BaseModel {
 
     @Column(nullable = false, length = 150)
@@ -37,14 +39,17 @@ public class ProductEntity extends BaseModel {
      * Relación Many-to-Many con Category
      * Un producto puede tener múltiples categorías
      * Una categoría puede estar en múltiples productos
+     * Se cargan ya ordenadas por nombre (ORDER BY en la consulta)
      */
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "product_categories",                    // Tabla intermedia
         joinColumns = @JoinColumn(name = "product_id"), // FK hacia products
-        inverseJoinColumns = @JoinColumn(name = "category_id") // FK hacia categories
+        inverseJoinColumns = @JoinColumn(name = "category_id"), // FK hacia categories
+        indexes = @Index(name = "idx_product_categories_category", columnList = "category_id, product_id")
     )
-    private Set<CategoryEntity> categories = new HashSet<>();
+    @OrderBy("name ASC")
+    private Set<CategoryEntity> categories = new LinkedHashSet<>();
 
     public ProductEntity() {}
 
@@ -63,7 +68,7 @@ public class ProductEntity extends BaseModel {
 
     public Set<CategoryEntity> getCategories() { return categories; }
     public void setCategories(Set<CategoryEntity> categories) {
-        this.categories = categories != null ? categories : new HashSet<>();
+        this.categories = categories != null ? categories : new LinkedHashSet<>();
     }
 
     // ============== MÉTODOS DE CONVENIENCIA ==============
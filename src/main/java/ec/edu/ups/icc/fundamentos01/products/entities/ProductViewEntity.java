@@ -0,0 +1,99 @@
+package ec.edu.ups.icc.fundamentos01.products.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modelo de lectura desnormalizado de productos (CQRS).
+ *
+ * Una fila por producto con el resumen del dueño y las categorías ya
+ * serializadas como JSON (ordenadas por nombre). Los GET de productos se
+ * responden desde esta tabla sin JOIN con users ni categories.
+ *
+ * Se actualiza en la misma transacción que la escritura (ver ProductViewProjector)
+ * y se puede reconstruir desde products con POST /api/products/view/rebuild.
+ */
+@Entity
+@Table(
+        name = "product_view",
+        // Índices (columna, id) para los listados ordenados: con ?limit= se leen solo N entradas
+        indexes = {
+                @Index(name = "idx_product_view_price", columnList = "price, id"),
+                @Index(name = "idx_product_view_name", columnList = "name, id"),
+                @Index(name = "idx_product_view_created_at", columnList = "created_at, id"),
+                @Index(name = "idx_product_view_owner_price", columnList = "owner_id, price, id"),
+                @Index(name = "idx_product_view_owner_name", columnList = "owner_id, name, id"),
+                @Index(name = "idx_product_view_owner_created_at", columnList = "owner_id, created_at, id")
+        }
+)
+public class ProductViewEntity {
+
+    // Mismo ID que en products (no se genera)
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 150)
+    private String name;
+
+    @Column(nullable = false)
+    private Double price;
+
+    @Column(length = 500)
+    private String description;
+
+    // ============== DUEÑO (copiado de users) ==============
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "owner_name", nullable = false, length = 150)
+    private String ownerName;
+
+    @Column(name = "owner_email", nullable = false, length = 150)
+    private String ownerEmail;
+
+    // ============== CATEGORÍAS (arreglo JSON pre-serializado) ==============
+
+    @Column(name = "categories_json", nullable = false, length = 8000)
+    private String categoriesJson;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ProductViewEntity() {}
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public String getOwnerName() { return ownerName; }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+
+    public String getOwnerEmail() { return ownerEmail; }
+    public void setOwnerEmail(String ownerEmail) { this.ownerEmail = ownerEmail; }
+
+    public String getCategoriesJson() { return categoriesJson; }
+    public void setCategoriesJson(String categoriesJson) { this.categoriesJson = categoriesJson; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,127 @@
+package ec.edu.ups.icc.fundamentos01.products.imports;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV incremental (RFC 4180): comas, comillas dobles, "" como comilla
+ * escapada y saltos de línea dentro de comillas.
+ *
+ * Lee del Reader con un buffer fijo y devuelve un registro a la vez; la memoria
+ * no depende del tamaño del archivo. Un campo más largo que maxFieldLength se
+ * rechaza para que una comilla sin cerrar no acumule el resto del archivo.
+ */
+class CsvReader {
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int length;
+
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader in, int maxFieldLength) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * Línea física donde empezó el último registro devuelto
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Siguiente registro, o null al final. Las líneas vacías se saltan.
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            recordLine = line;
+            return readRecord(c);
+        }
+    }
+
+    private List<String> readRecord(int first) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = first;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new BadRequestException("Comilla sin cerrar en el registro de la línea " + recordLine);
+                }
+                if (c == '"') {
+                    int after = read();
+                    if (after == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        c = after;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(field, (char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                // CRLF: el \n cierra el registro
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                append(field, (char) c);
+            }
+            c = read();
+        }
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (field.length() >= maxFieldLength) {
+            throw new BadRequestException(
+                    "Campo de más de " + maxFieldLength + " caracteres en el registro de la línea " + recordLine);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (position == length) {
+            length = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (length <= 0) {
+                length = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,538 @@
+package ec.edu.ups.icc.fundamentos01.products.imports;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ServiceUnavailableException;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductImportResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importación masiva de productos desde CSV (POST /api/products/import).
+ *
+ * Cabecera obligatoria con las columnas name, price, ownerEmail y categories
+ * (nombres separados por |); description es opcional. El orden es libre.
+ *
+ * Tubería acotada de dos etapas:
+ *  1. El hilo de la petición lee el cuerpo con CsvReader y arma lotes de
+ *     batch-size filas en una cola de queue-capacity lotes. Si la cola está
+ *     llena espera: deja de leer el socket y el cliente frena (contrapresión).
+ *  2. Un hilo escritor (pool de writer-threads; sin hilo libre se responde 503)
+ *     confirma cada lote en su propia transacción: resuelve emails, categorías
+ *     y nombres repetidos con una consulta IN por lote y escribe products,
+ *     product_categories y product_view con INSERT por lotes de JDBC.
+ *
+ * La memoria es constante: como máximo queue-capacity + 2 lotes en vuelo y
+ * max-errors errores guardados. Cada lote confirmado avanza committedLine;
+ * si la importación falla se reenvía el mismo archivo con ?jobId= y se
+ * continúa después de esa línea.
+ *
+ * Métricas: products.import.rows (outcome=imported|failed).
+ */
+@Component
+public class ProductCsvImporter {
+
+    private static final List<ImportRow> END = Collections.emptyList();
+    private static final int MAX_FIELD_LENGTH = 10_000;
+
+    private static final String INSERT_PRODUCT = """
+        INSERT INTO products (name, price, description, user_id, created_at, updated_at, deleted)
+        VALUES (?, ?, ?, ?, ?, NULL, FALSE)
+        """;
+    private static final String INSERT_LINK = "INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)";
+    private static final String INSERT_VIEW = """
+        INSERT INTO product_view (id, name, price, description, owner_id, owner_name, owner_email,
+                                  categories_json, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NULL)
+        """;
+
+    private final UserRepository userRepo;
+    private final CategoryRepository categoryRepo;
+    private final ProductRepository productRepo;
+    private final ProductChangeRepository changeRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxErrors;
+    private final ThreadPoolExecutor writers;
+    private final Map<String, ProductImportJob> jobs;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public ProductCsvImporter(
+            UserRepository userRepo,
+            CategoryRepository categoryRepo,
+            ProductRepository productRepo,
+            ProductChangeRepository changeRepo,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher events,
+            MeterRegistry registry,
+            @Value("${app.import.batch-size:1000}") int batchSize,
+            @Value("${app.import.queue-capacity:4}") int queueCapacity,
+            @Value("${app.import.writer-threads:2}") int writerThreads,
+            @Value("${app.import.max-errors:100}") int maxErrors,
+            @Value("${app.import.retained-jobs:100}") int retainedJobs) {
+        this.userRepo = userRepo;
+        this.categoryRepo = categoryRepo;
+        this.productRepo = productRepo;
+        this.changeRepo = changeRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxErrors = maxErrors;
+
+        // Sin cola: cada importación necesita su escritor ya, o se rechaza
+        AtomicInteger counter = new AtomicInteger();
+        this.writers = new ThreadPoolExecutor(
+                writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "product-import-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        // Estado de las últimas importaciones (para consultar y reanudar)
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<String, ProductImportJob>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProductImportJob> eldest) {
+                return size() > retainedJobs;
+            }
+        });
+
+        this.importedRows = Counter.builder("products.import.rows").tag("outcome", "imported")
+                .description("Filas importadas desde CSV").register(registry);
+        this.failedRows = Counter.builder("products.import.rows").tag("outcome", "failed")
+                .description("Filas rechazadas al importar CSV").register(registry);
+    }
+
+    public ProductImportResponseDto status(String jobId) {
+        return findJob(jobId).toDto();
+    }
+
+    /**
+     * Importa el CSV leyendo el cuerpo a medida que llega.
+     *
+     * @param jobId null para una importación nueva; el de una importación fallida para reanudarla
+     */
+    public ProductImportResponseDto importCsv(InputStream body, String jobId) {
+        ProductImportJob job;
+        if (jobId == null) {
+            job = new ProductImportJob(UUID.randomUUID().toString(), maxErrors);
+            jobs.put(job.id(), job);
+        } else {
+            job = findJob(jobId);
+            if (job.status() == ProductImportJob.Status.COMPLETED) {
+                return job.toDto();
+            }
+        }
+        if (!job.tryStart()) {
+            throw new ConflictException("La importación " + job.id() + " ya está en curso");
+        }
+
+        long resumeAfter = job.committedLine();
+        BlockingQueue<List<ImportRow>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> writer;
+        try {
+            writer = writers.submit(() -> {
+                drain(job, queue);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            job.finish(ProductImportJob.Status.FAILED, "Sin escritores disponibles");
+            throw new ServiceUnavailableException("Hay demasiadas importaciones en curso, intente nuevamente");
+        }
+
+        try {
+            String parseError = null;
+            try {
+                parse(body, job, resumeAfter, queue, writer);
+            } catch (BadRequestException e) {
+                parseError = e.getMessage();
+            } catch (IOException e) {
+                parseError = "Error leyendo el archivo: " + e.getMessage();
+            }
+
+            // Lo ya encolado se confirma igual: al reanudar se sigue desde ahí
+            enqueue(queue, END, writer);
+            writer.get();
+
+            if (parseError != null) {
+                job.finish(ProductImportJob.Status.FAILED, parseError);
+                throw new BadRequestException(parseError + " (jobId " + job.id()
+                        + ", confirmado hasta la línea " + job.committedLine() + ")");
+            }
+            job.finish(ProductImportJob.Status.COMPLETED, null);
+        } catch (ExecutionException e) {
+            job.finish(ProductImportJob.Status.FAILED, "Error al guardar un lote: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ProductImportJob.Status.FAILED, "Importación interrumpida");
+        } catch (RuntimeException e) {
+            job.finish(ProductImportJob.Status.FAILED, e.getMessage());
+            throw e;
+        } finally {
+            // Sin efecto si el escritor ya terminó; si no, su transacción en curso se revierte
+            writer.cancel(true);
+        }
+        return job.toDto();
+    }
+
+    private ProductImportJob findJob(String jobId) {
+        ProductImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Importación no encontrada: " + jobId);
+        }
+        return job;
+    }
+
+    // ============== ETAPA 1: PARSEO ==============
+
+    private void parse(
+            InputStream body,
+            ProductImportJob job,
+            long resumeAfter,
+            BlockingQueue<List<ImportRow>> queue,
+            Future<?> writer
+    ) throws IOException, InterruptedException, ExecutionException {
+        CsvReader reader = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8), MAX_FIELD_LENGTH);
+        Columns columns = Columns.of(reader.next());
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            long line = reader.recordLine();
+            boolean alreadyCommitted = line <= resumeAfter;
+            job.lineRead(line, alreadyCommitted);
+            if (alreadyCommitted) {
+                continue;
+            }
+
+            batch.add(columns.row(line, record));
+            if (batch.size() == batchSize) {
+                enqueue(queue, batch, writer);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            enqueue(queue, batch, writer);
+        }
+    }
+
+    /**
+     * Contrapresión: si el escritor va atrasado el parser espera aquí.
+     * Si el escritor falló, writer.get() lanza su error.
+     */
+    private static void enqueue(BlockingQueue<List<ImportRow>> queue, List<ImportRow> batch, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 200, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("El escritor de la importación terminó antes de tiempo");
+            }
+        }
+    }
+
+    /**
+     * Posición de cada columna según la cabecera
+     */
+    private record Columns(int name, int price, int description, int ownerEmail, int categories) {
+
+        static Columns of(List<String> header) {
+            if (header == null) {
+                throw new BadRequestException("El archivo está vacío");
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                // Sin BOM ni espacios, sin distinguir mayúsculas
+                String column = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                positions.putIfAbsent(column, i);
+            }
+            for (String required : List.of("name", "price", "owneremail", "categories")) {
+                if (!positions.containsKey(required)) {
+                    throw new BadRequestException(
+                            "Falta la columna " + required + ". Cabecera esperada: name,price,description,ownerEmail,categories");
+                }
+            }
+            return new Columns(
+                    positions.get("name"),
+                    positions.get("price"),
+                    positions.getOrDefault("description", -1),
+                    positions.get("owneremail"),
+                    positions.get("categories"));
+        }
+
+        ImportRow row(long line, List<String> record) {
+            return new ImportRow(line, field(record, name), field(record, price), field(record, description),
+                    field(record, ownerEmail), field(record, categories));
+        }
+
+        private static String field(List<String> record, int index) {
+            return index >= 0 && index < record.size() ? record.get(index).trim() : "";
+        }
+    }
+
+    private record ImportRow(long line, String name, String price, String description, String ownerEmail, String categories) {}
+
+    // ============== ETAPA 2: ESCRITURA ==============
+
+    private void drain(ProductImportJob job, BlockingQueue<List<ImportRow>> queue) throws InterruptedException {
+        while (true) {
+            List<ImportRow> batch = queue.take();
+            if (batch == END) {
+                return;
+            }
+            writeBatch(job, batch);
+        }
+    }
+
+    /**
+     * Fila válida, con dueño y categorías (ordenadas por nombre) ya resueltos
+     */
+    private record ValidRow(ImportRow row, double price, String description, UserEntity owner, List<CategoryEntity> categories) {}
+
+    private void writeBatch(ProductImportJob job, List<ImportRow> batch) {
+        List<ProductImportResponseDto.LineErrorDto> rowErrors = new ArrayList<>();
+
+        Integer imported = transactionTemplate.execute(status -> {
+            // 1. MAPAS DE BÚSQUEDA DEL LOTE: una consulta IN por tipo de dato
+            Set<String> emails = new HashSet<>();
+            Set<String> categoryNames = new HashSet<>();
+            Set<String> names = new HashSet<>();
+            for (ImportRow row : batch) {
+                if (!row.ownerEmail().isEmpty()) emails.add(row.ownerEmail());
+                categoryNames.addAll(splitCategories(row.categories()));
+                if (!row.name().isEmpty()) names.add(row.name());
+            }
+
+            Map<String, UserEntity> owners = new HashMap<>();
+            if (!emails.isEmpty()) {
+                userRepo.findByEmailIn(emails).forEach(user -> owners.put(user.getEmail(), user));
+            }
+            Map<String, CategoryEntity> categories = new HashMap<>();
+            if (!categoryNames.isEmpty()) {
+                categoryRepo.findByLowerNameIn(categoryNames)
+                        .forEach(category -> categories.put(category.getName().toLowerCase(Locale.ROOT), category));
+            }
+            Set<String> takenNames = names.isEmpty() ? new HashSet<>() : new HashSet<>(productRepo.findExistingNames(names));
+
+            // 2. VALIDAR (los nombres repetidos dentro del archivo también cuentan)
+            List<ValidRow> valid = new ArrayList<>(batch.size());
+            for (ImportRow row : batch) {
+                ValidRow checked = validate(row, owners, categories, takenNames, rowErrors);
+                if (checked != null) {
+                    valid.add(checked);
+                    takenNames.add(row.name());
+                }
+            }
+            if (valid.isEmpty()) {
+                return 0;
+            }
+
+            // 3. INSERTAR por lotes de JDBC
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = insertProducts(valid, now);
+            insertLinksAndViews(valid, ids, now);
+
+            changeRepo.recordUpserts(ids, now);
+            events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.CREATED, ids, null));
+            return valid.size();
+        });
+
+        int importedCount = imported != null ? imported : 0;
+        importedRows.increment(importedCount);
+        failedRows.increment(rowErrors.size());
+        job.batchCommitted(batch.get(batch.size() - 1).line(), importedCount, rowErrors);
+    }
+
+    /**
+     * Mismas reglas que ProductServiceImpl.create; null y un error de línea si no se cumple alguna
+     */
+    private static ValidRow validate(
+            ImportRow row,
+            Map<String, UserEntity> owners,
+            Map<String, CategoryEntity> categories,
+            Set<String> takenNames,
+            List<ProductImportResponseDto.LineErrorDto> errors
+    ) {
+        String error = null;
+        double price = 0;
+        List<CategoryEntity> rowCategories = new ArrayList<>();
+        UserEntity owner = owners.get(row.ownerEmail());
+        String description = row.description().isEmpty() ? null : row.description();
+
+        if (row.name().length() < 3 || row.name().length() > 150) {
+            error = "El nombre debe tener entre 3 y 150 caracteres";
+        } else if (takenNames.contains(row.name())) {
+            error = "El nombre del producto ya está registrado: " + row.name();
+        } else if (description != null && description.length() > 500) {
+            error = "La descripción no puede superar 500 caracteres";
+        } else if (row.ownerEmail().isEmpty()) {
+            error = "El email del dueño es obligatorio";
+        } else if (owner == null) {
+            error = "Usuario no encontrado con email: " + row.ownerEmail();
+        } else {
+            try {
+                price = Double.parseDouble(row.price());
+                if (!(price > 0) || Double.isInfinite(price)) {
+                    error = "El precio debe ser mayor a 0";
+                }
+            } catch (NumberFormatException e) {
+                error = "Precio inválido: " + row.price();
+            }
+        }
+
+        if (error == null) {
+            List<String> names = splitCategories(row.categories());
+            if (names.isEmpty()) {
+                error = "Debe especificar al menos una categoría";
+            }
+            for (String name : names) {
+                CategoryEntity category = categories.get(name);
+                if (category == null) {
+                    error = "Categoría no encontrada: " + name;
+                    break;
+                }
+                rowCategories.add(category);
+            }
+        }
+
+        if (error != null) {
+            errors.add(new ProductImportResponseDto.LineErrorDto(row.line(), error));
+            return null;
+        }
+        rowCategories.sort(Comparator.comparing(CategoryEntity::getName));
+        return new ValidRow(row, price, description, owner, rowCategories);
+    }
+
+    /**
+     * Nombres de categoría en minúsculas, sin repetidos
+     */
+    private static List<String> splitCategories(String value) {
+        List<String> names = new ArrayList<>();
+        for (String part : value.split("\\|")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * INSERT por lotes; los IDs generados vuelven en el orden de las filas
+     */
+    private List<Long> insertProducts(List<ValidRow> rows, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(now);
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
+                for (ValidRow row : rows) {
+                    insert.setString(1, row.row().name());
+                    insert.setDouble(2, row.price());
+                    insert.setString(3, row.description());
+                    insert.setLong(4, row.owner().getId());
+                    insert.setTimestamp(5, createdAt);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != rows.size()) {
+                    throw new IllegalStateException("El driver devolvió " + ids.size() + " IDs para " + rows.size() + " filas");
+                }
+                return ids;
+            }
+        });
+    }
+
+    /**
+     * Filas de product_categories y de product_view (misma forma que ProductViewProjector)
+     */
+    private void insertLinksAndViews(List<ValidRow> rows, List<Long> ids, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(now);
+        List<Object[]> links = new ArrayList<>();
+        List<Object[]> views = new ArrayList<>(rows.size());
+
+        for (int i = 0; i < rows.size(); i++) {
+            ValidRow row = rows.get(i);
+            Long id = ids.get(i);
+            for (CategoryEntity category : row.categories()) {
+                links.add(new Object[] {id, category.getId()});
+            }
+            views.add(new Object[] {
+                    id, row.row().name(), row.price(), row.description(),
+                    row.owner().getId(), row.owner().getName(), row.owner().getEmail(),
+                    ProductMapper.toCategoriesJson(row.categories()), createdAt
+            });
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LINK, links);
+        jdbcTemplate.batchUpdate(INSERT_VIEW, views);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+}
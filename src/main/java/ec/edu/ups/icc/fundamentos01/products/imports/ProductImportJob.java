@@ -0,0 +1,120 @@
+package ec.edu.ups.icc.fundamentos01.products.imports;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductImportResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado de una importación. Lo escribe el hilo que parsea (líneas leídas) y el
+ * escritor (lotes confirmados); GET /api/products/import/{jobId} lo lee mientras corre.
+ */
+final class ProductImportJob {
+
+    enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final int maxErrors;
+
+    private Status status = Status.RUNNING;
+    private String failureReason;
+    private long linesRead;
+    private long imported;
+    private long failed;
+    private long skipped;
+    private long committedLine;
+    private final List<ProductImportResponseDto.LineErrorDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    // Del intento actual: para filas por segundo
+    private boolean attempted;
+    private long attemptStartNanos;
+    private long attemptProcessed;
+    private long elapsedMillis;
+
+    ProductImportJob(String id, int maxErrors) {
+        this.id = id;
+        this.maxErrors = maxErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    synchronized Status status() {
+        return status;
+    }
+
+    synchronized long committedLine() {
+        return committedLine;
+    }
+
+    /**
+     * Nuevo intento (primero o reanudación con el mismo archivo); false si ya hay uno en curso
+     */
+    synchronized boolean tryStart() {
+        if (attempted && status == Status.RUNNING) {
+            return false;
+        }
+        attempted = true;
+        status = Status.RUNNING;
+        failureReason = null;
+        skipped = 0;
+        attemptStartNanos = System.nanoTime();
+        attemptProcessed = 0;
+        elapsedMillis = 0;
+        return true;
+    }
+
+    synchronized void lineRead(long line, boolean alreadyCommitted) {
+        linesRead = line;
+        if (alreadyCommitted) {
+            skipped++;
+        }
+    }
+
+    /**
+     * Lote confirmado: solo entonces cuentan sus filas y errores, así un lote
+     * que falla y se reintenta al reanudar no se cuenta dos veces
+     */
+    synchronized void batchCommitted(long lastLine, int importedRows, List<ProductImportResponseDto.LineErrorDto> rowErrors) {
+        committedLine = lastLine;
+        imported += importedRows;
+        failed += rowErrors.size();
+        attemptProcessed += importedRows + rowErrors.size();
+        for (ProductImportResponseDto.LineErrorDto error : rowErrors) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    synchronized void finish(Status finalStatus, String reason) {
+        status = finalStatus;
+        failureReason = reason;
+        elapsedMillis = (System.nanoTime() - attemptStartNanos) / 1_000_000;
+    }
+
+    synchronized ProductImportResponseDto toDto() {
+        long elapsed = status == Status.RUNNING
+                ? (System.nanoTime() - attemptStartNanos) / 1_000_000
+                : elapsedMillis;
+
+        ProductImportResponseDto dto = new ProductImportResponseDto();
+        dto.jobId = id;
+        dto.status = status.name();
+        dto.failureReason = failureReason;
+        dto.linesRead = linesRead;
+        dto.imported = imported;
+        dto.failed = failed;
+        dto.skipped = skipped;
+        dto.committedLine = committedLine;
+        dto.elapsedMillis = elapsed;
+        dto.rowsPerSecond = elapsed > 0 ? attemptProcessed * 1000.0 / elapsed : 0;
+        dto.errors = List.copyOf(errors);
+        dto.errorsTruncated = errorsTruncated;
+        return dto;
+    }
+}
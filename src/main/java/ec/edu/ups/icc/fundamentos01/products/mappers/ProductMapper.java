@@ -0,0 +1,145 @@
+package ec.edu.ups.icc.fundamentos01.products.mappers;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Conversión ProductEntity / ProductViewEntity -> ProductResponseDto compartida por los servicios
+ */
+public final class ProductMapper {
+
+    // Solo (de)serializa CategorySummaryDto (campos públicos simples)
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final TypeReference<List<ProductResponseDto.CategorySummaryDto>> CATEGORY_LIST = new TypeReference<>() {};
+
+    private ProductMapper() {}
+
+    /**
+     * Convierte ProductEntity a DTO incluyendo dueño y categorías (N:N)
+     * Usa estructura anidada para mejor semántica
+     */
+    public static ProductResponseDto toResponseDto(ProductEntity entity) {
+        return toResponseDto(entity, toUserSummary(entity.getOwner()), true);
+    }
+
+    /**
+     * Variante para cuando el dueño ya es conocido (no se navega entity.getOwner())
+     * y las categorías son opcionales
+     */
+    public static ProductResponseDto toResponseDto(
+            ProductEntity entity,
+            ProductResponseDto.UserSummaryDto owner,
+            boolean withCategories
+    ) {
+        ProductResponseDto dto = new ProductResponseDto();
+
+        // Campos básicos
+        dto.id = entity.getId();
+        dto.name = entity.getName();
+        dto.price = entity.getPrice();
+        dto.description = entity.getDescription();
+
+        // Objeto User anidado
+        dto.user = owner;
+
+        if (withCategories) {
+            // Convertir Set<CategoryEntity> a List<CategorySummaryDto>
+            // (ya vienen ordenadas por nombre desde la consulta, ver @OrderBy)
+            dto.categories = entity.getCategories().stream()
+                    .map(ProductMapper::toCategorySummary)
+                    .toList();
+
+            // Populate legacy field for backward compatibility
+            if (!dto.categories.isEmpty()) {
+                dto.category = dto.categories.get(0);
+            }
+        }
+
+        dto.createdAt = entity.getCreatedAt();
+        dto.updatedAt = entity.getUpdatedAt();
+
+        return dto;
+    }
+
+    // ============== MODELO DE LECTURA (product_view) ==============
+
+    /**
+     * Fila de product_view para el producto; requiere dueño y categorías cargados
+     */
+    public static ProductViewEntity toView(ProductEntity entity) {
+        ProductViewEntity view = new ProductViewEntity();
+        view.setId(entity.getId());
+        view.setName(entity.getName());
+        view.setPrice(entity.getPrice());
+        view.setDescription(entity.getDescription());
+        view.setOwnerId(entity.getOwner().getId());
+        view.setOwnerName(entity.getOwner().getName());
+        view.setOwnerEmail(entity.getOwner().getEmail());
+        view.setCategoriesJson(toCategoriesJson(entity.getCategories()));
+        view.setCreatedAt(entity.getCreatedAt());
+        view.setUpdatedAt(entity.getUpdatedAt());
+        return view;
+    }
+
+    /**
+     * Respuesta armada solo con la fila de product_view (sin JOINs)
+     */
+    public static ProductResponseDto toResponseDto(ProductViewEntity view) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.id = view.getId();
+        dto.name = view.getName();
+        dto.price = view.getPrice();
+        dto.description = view.getDescription();
+
+        dto.user = new ProductResponseDto.UserSummaryDto();
+        dto.user.id = view.getOwnerId();
+        dto.user.name = view.getOwnerName();
+        dto.user.email = view.getOwnerEmail();
+
+        dto.categories = parseCategories(view.getCategoriesJson());
+        if (!dto.categories.isEmpty()) {
+            dto.category = dto.categories.get(0);
+        }
+
+        dto.createdAt = view.getCreatedAt();
+        dto.updatedAt = view.getUpdatedAt();
+        return dto;
+    }
+
+    /**
+     * JSON de categorías de product_view; las categorías deben venir ordenadas por nombre
+     */
+    public static String toCategoriesJson(Collection<CategoryEntity> categories) {
+        return JSON.writeValueAsString(categories.stream()
+                .map(ProductMapper::toCategorySummary)
+                .toList());
+    }
+
+    public static List<ProductResponseDto.CategorySummaryDto> parseCategories(String json) {
+        return JSON.readValue(json, CATEGORY_LIST);
+    }
+
+    public static ProductResponseDto.UserSummaryDto toUserSummary(UserEntity user) {
+        ProductResponseDto.UserSummaryDto summary = new ProductResponseDto.UserSummaryDto();
+        summary.id = user.getId();
+        summary.name = user.getName();
+        summary.email = user.getEmail();
+        return summary;
+    }
+
+    public static ProductResponseDto.CategorySummaryDto toCategorySummary(CategoryEntity category) {
+        ProductResponseDto.CategorySummaryDto summary = new ProductResponseDto.CategorySummaryDto();
+        summary.id = category.getId();
+        summary.name = category.getName();
+        summary.description = category.getDescription();
+        return summary;
+    }
+}
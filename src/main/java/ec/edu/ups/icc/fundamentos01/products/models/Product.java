@@ -2,6 +2,7 @@ package ec.edu.ups.icc.fundamentos01.products.models;
 
 import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
@@ -93,6 +94,21 @@ public class Product {
         return this;
     }
 
+    /**
+     * Aplica solo los campos presentes (no null) y valida el resultado
+     */
+    public Product partialUpdate(PartialUpdateProductDto dto) {
+        String newName = dto.getName() != null ? dto.getName() : this.name;
+        Double newPrice = dto.getPrice() != null ? dto.getPrice() : this.price;
+        String newDescription = dto.getDescription() != null ? dto.getDescription() : this.description;
+
+        this.validateBusinessRules(newName, newPrice, newDescription);
+        this.name = newName;
+        this.price = newPrice;
+        this.description = newDescription;
+        return this;
+    }
+
     // Getters y setters
     public Long getId() { return id; }
     public String getName() { return name; }
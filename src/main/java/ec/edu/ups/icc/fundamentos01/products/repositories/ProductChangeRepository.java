@@ -0,0 +1,75 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductChangeEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChangeEntity, Long> {
+
+    /**
+     * Página del feed: cambios posteriores al cursor, ya confirmados hace al menos
+     * la ventana de asentamiento (settledBefore), en orden de secuencia
+     */
+    @Query("""
+        SELECT c FROM ProductChangeEntity c
+        WHERE c.seq > :since AND c.changedAt <= :settledBefore
+        ORDER BY c.seq
+        """)
+    List<ProductChangeEntity> findPage(
+            @Param("since") Long since,
+            @Param("settledBefore") LocalDateTime settledBefore,
+            Limit limit
+    );
+
+    // ============== REGISTRO MASIVO (INSERT ... SELECT, sin cargar entidades) ==============
+    // Usados por las operaciones masivas, que no pasan por las entidades de producto.
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO product_changes (product_id, type, changed_at)
+        SELECT p.id, 'UPSERT', :now FROM products p WHERE p.id IN :ids
+        """)
+    int recordUpserts(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO product_changes (product_id, type, changed_at)
+        SELECT p.id, 'DELETE', :now FROM products p WHERE p.id IN :ids
+        """)
+    int recordDeletes(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Renombrar una categoría cambia la representación de todos sus productos
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO product_changes (product_id, type, changed_at)
+        SELECT pc.product_id, 'UPSERT', :now FROM product_categories pc WHERE pc.category_id = :categoryId
+        """)
+    int recordUpsertsByCategory(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    // Cambiar nombre/email de un usuario cambia el dueño embebido en sus productos
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO product_changes (product_id, type, changed_at)
+        SELECT p.id, 'UPSERT', :now FROM products p WHERE p.user_id = :ownerId
+        """)
+    int recordUpsertsByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    // Punto de partida del feed para productos que existían antes del registro de cambios
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO product_changes (product_id, type, changed_at)
+        SELECT p.id, 'UPSERT', :now FROM products p ORDER BY p.id
+        """)
+    int recordUpsertsForAll(@Param("now") LocalDateTime now);
+}
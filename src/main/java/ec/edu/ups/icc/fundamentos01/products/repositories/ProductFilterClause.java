@@ -0,0 +1,41 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+import jakarta.persistence.Query;
+
+/**
+ * WHERE de ProductFilter compartido por las consultas sobre products y product_view.
+ *
+ * La categoría se filtra con una subconsulta sobre product_categories (índice
+ * category_id, product_id) para no multiplicar filas en la consulta principal.
+ */
+final class ProductFilterClause {
+
+    private ProductFilterClause() {}
+
+    /**
+     * alias: variable de la entidad consultada; ownerPath: ruta al ID del dueño
+     * (p.owner.id en ProductEntity, v.ownerId en ProductViewEntity)
+     */
+    static void append(StringBuilder jpql, ProductFilter filter, String alias, String ownerPath) {
+        jpql.append(" WHERE 1 = 1");
+        if (filter.id != null) jpql.append(" AND ").append(alias).append(".id = :id");
+        if (filter.ownerId != null) jpql.append(" AND ").append(ownerPath).append(" = :ownerId");
+        if (filter.categoryId != null) {
+            jpql.append(" AND ").append(alias).append(".id IN (")
+                    .append("SELECT fp.id FROM ProductEntity fp JOIN fp.categories fc WHERE fc.id = :categoryId)");
+        }
+        if (filter.name != null) jpql.append(" AND LOWER(").append(alias).append(".name) LIKE LOWER(CONCAT('%', :name, '%'))");
+        if (filter.minPrice != null) jpql.append(" AND ").append(alias).append(".price >= :minPrice");
+        if (filter.maxPrice != null) jpql.append(" AND ").append(alias).append(".price <= :maxPrice");
+    }
+
+    static void bind(Query query, ProductFilter filter) {
+        if (filter.id != null) query.setParameter("id", filter.id);
+        if (filter.ownerId != null) query.setParameter("ownerId", filter.ownerId);
+        if (filter.categoryId != null) query.setParameter("categoryId", filter.categoryId);
+        if (filter.name != null) query.setParameter("name", filter.name);
+        if (filter.minPrice != null) query.setParameter("minPrice", filter.minPrice);
+        if (filter.maxPrice != null) query.setParameter("maxPrice", filter.maxPrice);
+    }
+}
@@ -1,19 +1,33 @@
 package ec.edu.ups.icc.fundamentos01.products.repositories;
 
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductRepositoryCustom {
 
     Optional<ProductEntity> findByName(String name);
 
+    /**
+     * Cuáles de estos nombres ya están registrados (solo el índice, sin cargar entidades)
+     */
+    @Query("SELECT p.name FROM ProductEntity p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
     /**
      * Encuentra todos los productos de un usuario específico
      * Spring Data JPA genera: SELECT * FROM products WHERE user_id = ?
@@ -39,24 +53,97 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
     List<ProductEntity> findByOwnerName(String ownerName);
 
     /**
-     * Busca productos de un usuario con filtros opcionales.
-     * Los filtros se aplican a nivel de base de datos (no en memoria).
-     * Si un parámetro es null, ese filtro se ignora.
+     * Carga varios productos con su dueño y categorías en una sola consulta (multi-get)
      */
     @Query("""
         SELECT DISTINCT p FROM ProductEntity p
-        LEFT JOIN p.categories c
-        WHERE p.owner.id = :userId
-        AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
-        AND (:minPrice IS NULL OR p.price >= :minPrice)
-        AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-        AND (:categoryId IS NULL OR c.id = :categoryId)
+        JOIN FETCH p.owner
+        LEFT JOIN FETCH p.categories
+        WHERE p.id IN :ids
         """)
-    List<ProductEntity> findByUserIdWithFilters(
-            @Param("userId") Long userId,
-            @Param("name") String name,
-            @Param("minPrice") Double minPrice,
-            @Param("maxPrice") Double maxPrice,
-            @Param("categoryId") Long categoryId
+    List<ProductEntity> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Filas de la tabla N:N (product_id, category_id) para el snapshot en memoria
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(nativeQuery = true, value = "SELECT product_id, category_id FROM product_categories")
+    Stream<Object[]> streamCategoryLinks();
+
+    /**
+     * Recorrido por ID (keyset) para reconstruir product_view por bloques
+     */
+    @Query("SELECT p.id FROM ProductEntity p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // ============== ACTUALIZACIONES MASIVAS (sin cargar entidades) ==============
+    // Se recorren los IDs afectados por keyset (id > afterId) en bloques de N, cada
+    // bloque en su propia transacción corta, y se actualizan con un UPDATE ... IN.
+    // updatedAt se asigna explícitamente porque un UPDATE JPQL no dispara @PreUpdate.
+    // Los productos cuyo precio redondeado quedaría en 0 o negativo no se modifican.
+
+    /**
+     * Siguiente bloque de IDs que modificará multiplyPrice (factor) o addToPrice (amount);
+     * se pasa uno de los dos y el otro en null
+     */
+    @Query("""
+        SELECT p.id FROM ProductEntity p
+        WHERE p.id > :afterId
+        AND (:factor IS NULL OR ROUND(p.price * :factor, 2) > 0)
+        AND (:amount IS NULL OR ROUND(p.price + :amount, 2) > 0)
+        AND (:ownerId IS NULL OR p.owner.id = :ownerId)
+        AND (:anyCategory = false OR p.id IN (
+            SELECT pc.id FROM ProductEntity pc JOIN pc.categories c WHERE c.id IN :categoryIds))
+        ORDER BY p.id
+        """)
+    List<Long> findRepriceIds(
+            @Param("afterId") Long afterId,
+            @Param("ownerId") Long ownerId,
+            @Param("anyCategory") boolean anyCategory,
+            @Param("categoryIds") Collection<Long> categoryIds,
+            @Param("factor") Double factor,
+            @Param("amount") Double amount,
+            Limit limit
     );
-}
\ No newline at end of file
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        UPDATE ProductEntity p
+        SET p.price = ROUND(p.price * :factor, 2), p.updatedAt = :now
+        WHERE p.id IN :ids
+        AND ROUND(p.price * :factor, 2) > 0
+        """)
+    int multiplyPrice(
+            @Param("factor") double factor,
+            @Param("now") LocalDateTime now,
+            @Param("ids") Collection<Long> ids
+    );
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        UPDATE ProductEntity p
+        SET p.price = ROUND(p.price + :amount, 2), p.updatedAt = :now
+        WHERE p.id IN :ids
+        AND ROUND(p.price + :amount, 2) > 0
+        """)
+    int addToPrice(
+            @Param("amount") double amount,
+            @Param("now") LocalDateTime now,
+            @Param("ids") Collection<Long> ids
+    );
+
+    // ============== BORRADOS MASIVOS POR BLOQUES ==============
+    // Se seleccionan hasta N IDs y se borran con un DELETE JPQL por bloque.
+    // Hibernate borra antes las filas de product_categories de esos productos
+    // (tabla de la relación N:N que posee ProductEntity).
+
+    @Query("SELECT p.id FROM ProductEntity p WHERE p.owner.id = :ownerId ORDER BY p.id")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId, Limit limit);
+
+    @Query("SELECT p.id FROM ProductEntity p JOIN p.categories c WHERE c.id = :categoryId ORDER BY p.id")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId, Limit limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ProductEntity p WHERE p.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
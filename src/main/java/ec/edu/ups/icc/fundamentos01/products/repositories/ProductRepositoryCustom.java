@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+
+import java.util.List;
+
+/**
+ * Consultas armadas a mano sobre products (las que necesitan las categorías como filas)
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Conteo de productos por categoría para el filtro: filas (id, name, count), por nombre
+     */
+    List<Object[]> countByCategory(ProductFilter filter);
+}
@@ -0,0 +1,28 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Object[]> countByCategory(ProductFilter filter) {
+        // c recorre todas las categorías de cada producto; el filtro de categoría es una subconsulta
+        StringBuilder jpql = new StringBuilder("SELECT c.id, c.name, COUNT(p.id) FROM ProductEntity p JOIN p.categories c");
+        ProductFilterClause.append(jpql, filter, "p", "p.owner.id");
+        jpql.append(" GROUP BY c.id, c.name ORDER BY c.name");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        ProductFilterClause.bind(query, filter);
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,172 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lecturas de productos desde product_view (una tabla, sin JOIN con users ni categories).
+ * El filtro por categoría es una subconsulta sobre el índice (category_id, product_id)
+ * de product_categories.
+ */
+@Repository
+public interface ProductViewRepository extends JpaRepository<ProductViewEntity, Long>, ProductViewRepositoryCustom {
+
+    // ============== LISTADOS ORDENADOS EN SQL (?sort=&direction=&limit=) ==============
+    // El ORDER BY y el LIMIT los arma Spring Data a partir de ProductSort;
+    // los índices compuestos de product_view permiten leer solo las primeras N entradas.
+
+    @Query("SELECT v FROM ProductViewEntity v")
+    List<ProductViewEntity> findAllSorted(Sort sort, Limit limit);
+
+    List<ProductViewEntity> findByOwnerId(Long ownerId, Sort sort, Limit limit);
+
+    @Query("""
+        SELECT v FROM ProductViewEntity v
+        WHERE v.id IN (SELECT p.id FROM ProductEntity p JOIN p.categories c WHERE c.id = :categoryId)
+        """)
+    List<ProductViewEntity> findByCategoryId(@Param("categoryId") Long categoryId, Sort sort, Limit limit);
+
+    /**
+     * Busca productos de un usuario con filtros opcionales.
+     * Si un parámetro es null, ese filtro se ignora.
+     */
+    @Query("""
+        SELECT v FROM ProductViewEntity v
+        WHERE v.ownerId = :userId
+        AND (:name IS NULL OR LOWER(v.name) LIKE LOWER(CONCAT('%', :name, '%')))
+        AND (:minPrice IS NULL OR v.price >= :minPrice)
+        AND (:maxPrice IS NULL OR v.price <= :maxPrice)
+        AND (:categoryId IS NULL OR v.id IN (
+            SELECT p.id FROM ProductEntity p JOIN p.categories c WHERE c.id = :categoryId))
+        """)
+    List<ProductViewEntity> findByUserIdWithFilters(
+            @Param("userId") Long userId,
+            @Param("name") String name,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("categoryId") Long categoryId,
+            Sort sort,
+            Limit limit
+    );
+
+    /**
+     * Mismos filtros que findByUserIdWithFilters sobre los IDs que eligió ProductSnapshot:
+     * el snapshot puede ir atrasado respecto de la fila, así que se vuelven a comprobar
+     */
+    @Query("""
+        SELECT v FROM ProductViewEntity v
+        WHERE v.id IN :ids
+        AND v.ownerId = :userId
+        AND (:name IS NULL OR LOWER(v.name) LIKE LOWER(CONCAT('%', :name, '%')))
+        AND (:minPrice IS NULL OR v.price >= :minPrice)
+        AND (:maxPrice IS NULL OR v.price <= :maxPrice)
+        AND (:categoryId IS NULL OR v.id IN (
+            SELECT p.id FROM ProductEntity p JOIN p.categories c WHERE c.id = :categoryId))
+        """)
+    List<ProductViewEntity> findByIdInWithFilters(
+            @Param("ids") Collection<Long> ids,
+            @Param("userId") Long userId,
+            @Param("name") String name,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("categoryId") Long categoryId,
+            Sort sort,
+            Limit limit
+    );
+
+    // ============== ESTADÍSTICAS DE PRECIO (agregados SQL, sin cargar productos) ==============
+    // Una fila: count, min, max, avg, p50, p90, p99
+
+    @Query(nativeQuery = true, value = """
+        SELECT COUNT(*), MIN(v.price), MAX(v.price), AVG(v.price),
+               PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY v.price),
+               PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY v.price),
+               PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY v.price)
+        FROM product_view v
+        JOIN product_categories pc ON pc.product_id = v.id
+        WHERE pc.category_id = :categoryId
+        """)
+    List<Object[]> findPriceStatsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(nativeQuery = true, value = """
+        SELECT COUNT(*), MIN(v.price), MAX(v.price), AVG(v.price),
+               PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY v.price),
+               PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY v.price),
+               PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY v.price)
+        FROM product_view v
+        WHERE v.owner_id = :ownerId
+        """)
+    List<Object[]> findPriceStatsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // ============== SINCRONIZACIÓN DESDE EL LADO DE ESCRITURA ==============
+    // UPDATE/DELETE JPQL: no cargan filas de la vista.
+
+    /**
+     * Nombre/email del dueño embebidos en todas sus filas (índice por owner_id)
+     */
+    @Modifying
+    @Query("UPDATE ProductViewEntity v SET v.ownerName = :name, v.ownerEmail = :email WHERE v.ownerId = :ownerId")
+    int updateOwner(@Param("ownerId") Long ownerId, @Param("name") String name, @Param("email") String email);
+
+    /**
+     * Copia precio y updatedAt desde products (ajuste masivo de precios)
+     */
+    @Modifying
+    @Query("""
+        UPDATE ProductViewEntity v
+        SET v.price = (SELECT p.price FROM ProductEntity p WHERE p.id = v.id),
+            v.updatedAt = (SELECT p.updatedAt FROM ProductEntity p WHERE p.id = v.id)
+        WHERE v.id IN :ids
+        """)
+    int refreshPrices(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ProductViewEntity v WHERE v.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Filas cuyo producto ya no existe (reconstrucción)
+     */
+    @Modifying
+    @Query("DELETE FROM ProductViewEntity v WHERE v.id NOT IN (SELECT p.id FROM ProductEntity p)")
+    int deleteOrphans();
+
+    // ============== CONSULTAS EN STREAMING ==============
+    // Recorren el resultado con un cursor (fetch size) en lugar de cargar
+    // toda la lista. Deben consumirse dentro de una transacción y cerrarse.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT v FROM ProductViewEntity v")
+    Stream<ProductViewEntity> streamAll(Sort sort);
+
+    /**
+     * Solo las columnas del snapshot en memoria: (id, name, price, ownerId)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.id, v.name, v.price, v.ownerId FROM ProductViewEntity v ORDER BY v.id")
+    Stream<Object[]> streamSnapshotRows();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT v FROM ProductViewEntity v WHERE v.ownerId = :userId")
+    Stream<ProductViewEntity> streamByOwnerId(@Param("userId") Long userId, Sort sort);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("""
+        SELECT v FROM ProductViewEntity v
+        WHERE v.id IN (SELECT p.id FROM ProductEntity p JOIN p.categories c WHERE c.id = :categoryId)
+        """)
+    Stream<ProductViewEntity> streamByCategoryId(@Param("categoryId") Long categoryId, Sort sort);
+}
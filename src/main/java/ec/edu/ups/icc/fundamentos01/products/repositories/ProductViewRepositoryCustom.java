@@ -0,0 +1,41 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Consultas con proyección dinámica (sparse fieldsets) y búsqueda con facetas sobre product_view
+ */
+public interface ProductViewRepositoryCustom {
+
+    /**
+     * Devuelve solo los campos pedidos, todos de la misma fila de product_view
+     * (el dueño y las categorías ya están embebidos). El orden y el límite (top-N)
+     * van en la consulta.
+     */
+    List<Map<String, Object>> findFields(FieldSelection fields, ProductFilter filter, ProductSort sort);
+
+    /**
+     * Página de IDs que cumplen el filtro, en el orden pedido
+     */
+    List<Long> findIds(ProductFilter filter, ProductSort sort, int offset, int limit);
+
+    /**
+     * Conteo por rango de precio en una sola consulta; edges ascendentes.
+     * Devuelve edges.size() + 1 conteos: el primero es price < edges[0], el
+     * bucket i + 1 es [edges[i], edges[i+1]) y el último no tiene tope
+     */
+    long[] countByPriceBucket(ProductFilter filter, List<Double> edges);
+
+    /**
+     * Filas que cumplen el filtro, en el orden pedido, leídas con cursor
+     * (usar dentro de una transacción y cerrar el Stream)
+     */
+    Stream<ProductViewEntity> streamFiltered(ProductFilter filter, ProductSort sort);
+}
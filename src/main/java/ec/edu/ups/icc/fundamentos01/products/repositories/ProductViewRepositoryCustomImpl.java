@@ -0,0 +1,157 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ProductViewRepositoryCustomImpl implements ProductViewRepositoryCustom {
+
+    // Campo del DTO -> columna JPQL (campos escalares de product_view)
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "v.id",
+            "name", "v.name",
+            "price", "v.price",
+            "description", "v.description",
+            "createdAt", "v.createdAt",
+            "updatedAt", "v.updatedAt"
+    );
+
+    private final EntityManager entityManager;
+
+    public ProductViewRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(FieldSelection fields, ProductFilter filter, ProductSort sort) {
+        boolean withOwner = fields.includes("user");
+        boolean withCategories = fields.includesAny("categories", "category");
+
+        // ============== SELECT solo con las columnas pedidas ==============
+        List<String> scalar = fields.fields().stream()
+                .filter(COLUMNS::containsKey)
+                .filter(field -> !field.equals("id"))
+                .toList();
+
+        StringBuilder jpql = new StringBuilder("SELECT v.id");
+        scalar.forEach(field -> jpql.append(", ").append(COLUMNS.get(field)));
+        int ownerBase = scalar.size() + 1;
+        if (withOwner) {
+            jpql.append(", v.ownerId, v.ownerName, v.ownerEmail");
+        }
+        int categoriesIndex = ownerBase + (withOwner ? 3 : 0);
+        if (withCategories) {
+            jpql.append(", v.categoriesJson");
+        }
+        jpql.append(" FROM ProductViewEntity v");
+
+        // ============== WHERE según los filtros presentes ==============
+        ProductFilterClause.append(jpql, filter, "v", "v.ownerId");
+        jpql.append(sort.toJpql("v"));
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        ProductFilterClause.bind(query, filter);
+        if (sort.hasLimit()) {
+            query.setMaxResults(sort.limit());
+        }
+
+        // ============== ARMAR RESPUESTA EN ORDEN CANÓNICO ==============
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Tuple row : query.getResultList()) {
+            List<ProductResponseDto.CategorySummaryDto> categories = withCategories
+                    ? ProductMapper.parseCategories(row.get(categoriesIndex, String.class))
+                    : List.of();
+
+            Map<String, Object> product = new LinkedHashMap<>();
+            for (String field : fields.fields()) {
+                switch (field) {
+                    case "id" -> product.put("id", row.get(0));
+                    case "user" -> {
+                        Map<String, Object> owner = new LinkedHashMap<>();
+                        owner.put("id", row.get(ownerBase));
+                        owner.put("name", row.get(ownerBase + 1));
+                        owner.put("email", row.get(ownerBase + 2));
+                        product.put("user", owner);
+                    }
+                    case "categories" -> product.put("categories", categories);
+                    case "category" -> product.put("category", categories.isEmpty() ? null : categories.get(0));
+                    default -> product.put(field, row.get(scalar.indexOf(field) + 1));
+                }
+            }
+            result.add(product);
+        }
+        return result;
+    }
+
+    // ============== BÚSQUEDA CON FACETAS ==============
+
+    @Override
+    public List<Long> findIds(ProductFilter filter, ProductSort sort, int offset, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT v.id FROM ProductViewEntity v");
+        ProductFilterClause.append(jpql, filter, "v", "v.ownerId");
+        jpql.append(sort.toJpql("v"));
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        ProductFilterClause.bind(query, filter);
+        return query.setFirstResult(offset).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long[] countByPriceBucket(ProductFilter filter, List<Double> edges) {
+        // Una sola fila con un SUM(CASE ...) por bucket: < edges[0], [edges[i], edges[i+1]) y el último abierto
+        StringBuilder jpql = new StringBuilder("SELECT SUM(CASE WHEN v.price < ")
+                .append(literal(edges.get(0))).append(" THEN 1 ELSE 0 END)");
+        for (int i = 0; i < edges.size(); i++) {
+            jpql.append(", SUM(CASE WHEN v.price >= ").append(literal(edges.get(i)));
+            if (i < edges.size() - 1) {
+                jpql.append(" AND v.price < ").append(literal(edges.get(i + 1)));
+            }
+            jpql.append(" THEN 1 ELSE 0 END)");
+        }
+        jpql.append(" FROM ProductViewEntity v");
+        ProductFilterClause.append(jpql, filter, "v", "v.ownerId");
+
+        Query query = entityManager.createQuery(jpql.toString());
+        ProductFilterClause.bind(query, filter);
+
+        Object result = query.getSingleResult();
+        Object[] row = (Object[]) result;
+        long[] counts = new long[row.length];
+        for (int i = 0; i < row.length; i++) {
+            counts[i] = row[i] != null ? ((Number) row[i]).longValue() : 0;
+        }
+        return counts;
+    }
+
+    @Override
+    public Stream<ProductViewEntity> streamFiltered(ProductFilter filter, ProductSort sort) {
+        StringBuilder jpql = new StringBuilder("SELECT v FROM ProductViewEntity v");
+        ProductFilterClause.append(jpql, filter, "v", "v.ownerId");
+        jpql.append(sort.toJpql("v"));
+
+        TypedQuery<ProductViewEntity> query = entityManager.createQuery(jpql.toString(), ProductViewEntity.class);
+        ProductFilterClause.bind(query, filter);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, 200);
+        return query.getResultStream();
+    }
+
+    // Los límites ya son números validados; se escriben como literales para no repetir parámetros
+    private static String literal(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+}
@@ -0,0 +1,391 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Escritura diferida (write-behind) de precios para PUT /api/products/{id} muy frecuentes.
+ *
+ * Un PUT que solo cambia el precio no se guarda en el momento: queda pendiente
+ * en memoria por ID de producto (gana la última escritura) y un hilo lo aplica
+ * cada max-delay con un UPDATE por lotes, junto con product_view, el feed de
+ * cambios y un CatalogEvent por lote. Cualquier otro cambio del mismo producto
+ * pasa por ProductServiceImpl: el PUT completo y el PATCH guardan antes el
+ * precio pendiente de ese ID (flush(id)) y lo descartan al confirmar
+ * (discardAfterCommit); el reprecio masivo vacía todo antes de empezar.
+ *
+ * El UPDATE del vaciado es condicional (updated_at <= momento del PUT diferido):
+ * si otra escritura del producto se confirmó después, no se pisa con un precio viejo.
+ *
+ * La primera escritura de un producto lee su fila de product_view; las
+ * siguientes dentro de la ventana ya no tocan la base de datos. Las respuestas
+ * de lectura ven el precio pendiente (overlay); los filtros y el orden por
+ * precio usan el valor ya guardado.
+ *
+ * Durabilidad: lo pendiente se pierde si el proceso muere; como máximo son
+ * max-delay de cambios. Con max-pending productos pendientes se adelanta el
+ * vaciado, y al apagar (flush-on-shutdown) se vacía antes que el arranque en caliente.
+ *
+ * Activar con app.price-buffer.enabled. Métricas: price.buffer.pending y
+ * price.buffer.writes{result=buffered|flushed}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.price-buffer.enabled", havingValue = "true")
+public class PriceWriteBuffer implements SmartLifecycle {
+
+    private static final String UPDATE_PRICE = """
+            UPDATE products SET price = ?, updated_at = ?
+            WHERE id = ? AND (updated_at IS NULL OR updated_at <= ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductViewProjector productViews;
+    private final ProductChangeRepository changeRepo;
+    private final ApplicationEventPublisher events;
+
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final boolean flushOnShutdown;
+
+    // Respuesta ya con el precio nuevo; se devuelve tal cual a las lecturas
+    private final Map<Long, ProductResponseDto> pending = new ConcurrentHashMap<>();
+    // Lote que se está guardando: las lecturas lo siguen viendo hasta el commit
+    private volatile Map<Long, ProductResponseDto> flushing = Map.of();
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private volatile boolean running;
+
+    private final Counter buffered;
+    private final Counter flushed;
+
+    public PriceWriteBuffer(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductViewProjector productViews,
+            ProductChangeRepository changeRepo,
+            ApplicationEventPublisher events,
+            MeterRegistry registry,
+            @Value("${app.price-buffer.max-delay:250ms}") Duration maxDelay,
+            @Value("${app.price-buffer.max-pending:10000}") int maxPending,
+            @Value("${app.price-buffer.flush-on-shutdown:true}") boolean flushOnShutdown
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // flush(id) se llama dentro de la transacción de un PATCH: el vaciado confirma por su cuenta
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.productViews = productViews;
+        this.changeRepo = changeRepo;
+        this.events = events;
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.maxPending = maxPending;
+        this.flushOnShutdown = flushOnShutdown;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "price-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.buffered = Counter.builder("price.buffer.writes")
+                .description("Cambios de precio recibidos en el buffer")
+                .tag("result", "buffered")
+                .register(registry);
+        this.flushed = Counter.builder("price.buffer.writes")
+                .description("Filas escritas en la base de datos por el buffer")
+                .tag("result", "flushed")
+                .register(registry);
+        registry.gauge("price.buffer.pending", pending, Map::size);
+    }
+
+    // ============== ESCRITURA ==============
+
+    /**
+     * Deja pendiente el precio si el PUT no cambia nada más del producto.
+     *
+     * @param current fila actual del producto (solo se llama si no hay nada pendiente);
+     *                lanza NotFoundException si no existe
+     * @return la respuesta con el precio nuevo, o null si el PUT cambia otros campos
+     */
+    public ProductResponseDto tryBuffer(Long id, UpdateProductDto dto, Supplier<ProductResponseDto> current) {
+        if (!running) {
+            return null;
+        }
+        ProductResponseDto base = pending.get(id);
+        if (base == null) {
+            base = current.get();
+        }
+        if (!onlyPriceChanges(base, dto)) {
+            return null;
+        }
+
+        ProductResponseDto updated = withPrice(base, dto.price);
+        pending.put(id, updated);
+        buffered.increment();
+
+        if (pending.size() >= maxPending) {
+            flusher.execute(this::flushQuietly);
+        }
+        return updated;
+    }
+
+    /**
+     * Quita, cuando confirme la transacción actual, el precio pendiente que hay
+     * ahora para el producto (la escritura en curso lo reemplaza). Solo ese: un PUT
+     * diferido que llegue antes del commit ya se respondió y se conserva. Si la
+     * transacción hace rollback no se quita nada; sin transacción activa se quita ya.
+     */
+    public void discardAfterCommit(Long id) {
+        ProductResponseDto seen = pending.get(id);
+        if (seen == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.remove(id, seen);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.remove(id, seen);
+            }
+        });
+    }
+
+    // ============== LECTURA (overlay) ==============
+
+    /**
+     * Producto con precio pendiente, o null si no hay nada pendiente para ese ID
+     */
+    public ProductResponseDto find(Long id) {
+        ProductResponseDto buffered = pending.get(id);
+        return buffered != null ? buffered : flushing.get(id);
+    }
+
+    public ProductResponseDto overlay(ProductResponseDto product) {
+        ProductResponseDto buffered = find(product.id);
+        return buffered != null ? buffered : product;
+    }
+
+    public List<ProductResponseDto> overlay(List<ProductResponseDto> products) {
+        if (isEmpty()) {
+            return products;
+        }
+        return products.stream().map(this::overlay).toList();
+    }
+
+    /**
+     * Para las proyecciones ?fields=: reemplaza price y updatedAt (si están) en cada fila
+     *
+     * @param ids ID de cada fila, en el mismo orden
+     */
+    public void overlayFields(List<Map<String, Object>> rows, List<Long> ids) {
+        for (int i = 0; i < rows.size(); i++) {
+            ProductResponseDto buffered = find(ids.get(i));
+            if (buffered == null) {
+                continue;
+            }
+            Map<String, Object> row = rows.get(i);
+            row.replace("price", buffered.price);
+            row.replace("updatedAt", buffered.updatedAt);
+        }
+    }
+
+    /**
+     * true si no hay nada pendiente ni guardándose
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty() && flushing.isEmpty();
+    }
+
+    // ============== VACIADO ==============
+
+    /**
+     * Aplica todo lo pendiente en una transacción. Cada entrada se quita del mapa
+     * solo si no cambió mientras tanto; si el UPDATE falla, lo quitado se devuelve
+     * (sin pisar un precio más nuevo) y se reintenta en el siguiente ciclo.
+     *
+     * @return productos actualizados
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            return flushBatch(new HashMap<>(pending));
+        }
+    }
+
+    /**
+     * Guarda el precio pendiente de un producto antes de que otra escritura lo lea.
+     * Toma flushLock: si un vaciado en curso incluye este ID, espera a su commit.
+     */
+    public void flush(Long id) {
+        synchronized (flushLock) {
+            ProductResponseDto entry;
+            while ((entry = pending.get(id)) != null) {
+                Map<Long, ProductResponseDto> batch = new HashMap<>();
+                batch.put(id, entry);
+                flushBatch(batch);
+            }
+        }
+    }
+
+    private int flushBatch(Map<Long, ProductResponseDto> batch) {
+        batch.entrySet().removeIf(entry -> !pending.remove(entry.getKey(), entry.getValue()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        flushing = batch;
+        try {
+            Integer applied = transactionTemplate.execute(status -> apply(batch));
+            int count = applied != null ? applied : 0;
+            flushed.increment(count);
+            return count;
+        } catch (RuntimeException e) {
+            batch.forEach(pending::putIfAbsent);
+            throw e;
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    private int apply(Map<Long, ProductResponseDto> batch) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // updated_at = momento del PUT (el que ya vio el cliente en la respuesta)
+            ProductResponseDto buffered = batch.get(id);
+            Timestamp updatedAt = Timestamp.valueOf(buffered.updatedAt);
+            rows.add(new Object[]{buffered.price, updatedAt, id, updatedAt});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_PRICE, rows);
+
+        // Productos borrados o escritos después mientras el precio esperaba: no se proyectan
+        List<Long> updated = new ArrayList<>(ids.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                updated.add(ids.get(i));
+            }
+        }
+        if (updated.isEmpty()) {
+            return 0;
+        }
+
+        productViews.refreshPrices(updated);
+        changeRepo.recordUpserts(updated, now);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.UPDATED, updated, null));
+        return updated.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ No se pudieron guardar los precios pendientes (" + pending.size()
+                    + "), se reintenta: " + e.getMessage());
+        }
+    }
+
+    // ============== CICLO DE VIDA ==============
+
+    @Override
+    public void start() {
+        running = true;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, maxDelayMillis, maxDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fase 1: después del servidor web y antes de WarmStartSnapshot (fase 0),
+     * así el archivo de arranque en caliente ya incluye los precios pendientes
+     */
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdownNow();
+        if (flushOnShutdown) {
+            int count = pending.size();
+            flushQuietly();
+            System.out.println("💾 Precios pendientes guardados al apagar: " + count);
+        } else if (!pending.isEmpty()) {
+            System.err.println("⚠️ Se descartan " + pending.size() + " precios pendientes (flush-on-shutdown = false)");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    // ============== AUXILIARES ==============
+
+    /**
+     * Mismas reglas que update(): description null conserva la actual
+     */
+    private static boolean onlyPriceChanges(ProductResponseDto current, UpdateProductDto dto) {
+        if (current.categories == null) {
+            return false;
+        }
+        Set<Long> categoryIds = current.categories.stream()
+                .map(category -> category.id)
+                .collect(Collectors.toSet());
+        return Objects.equals(current.name, dto.name)
+                && (dto.description == null || Objects.equals(current.description, dto.description))
+                && categoryIds.equals(dto.categoryIds);
+    }
+
+    private static ProductResponseDto withPrice(ProductResponseDto source, Double price) {
+        ProductResponseDto copy = new ProductResponseDto();
+        copy.id = source.id;
+        copy.name = source.name;
+        copy.price = price;
+        copy.description = source.description;
+        copy.user = source.user;
+        copy.categories = source.categories;
+        copy.category = source.category;
+        copy.createdAt = source.createdAt;
+        // Misma precisión que la columna: la condición del UPDATE compara este valor
+        copy.updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return copy;
+    }
+}
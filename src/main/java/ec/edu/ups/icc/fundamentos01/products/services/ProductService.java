@@ -1,18 +1,45 @@
 package ec.edu.ups.icc.fundamentos01.products.services;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import ec.edu.ups.icc.fundamentos01.products.dtos.*;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.SnapshotQuery;
 
 public interface ProductService {
-    List<ProductResponseDto> findAll();
+    // Los listados aceptan orden y top-N (ProductSort), aplicados en SQL
+    List<ProductResponseDto> findAll(ProductSort sort);
     ProductResponseDto findById(Long id);
+    ProductBatchResponseDto findByIds(List<Long> ids);
     ProductResponseDto create(CreateProductDto dto);
     ProductResponseDto update(Long id, UpdateProductDto dto);
+    ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto);
     void delete(Long id);
 
+    // Ajuste masivo de precios con UPDATE por bloques
+    BulkRepriceResponseDto bulkReprice(BulkRepriceDto dto);
+
+    // Borrado masivo por bloques; onProgress recibe el avance de cada bloque
+    BulkDeleteProgressDto deleteByOwner(Long userId, Consumer<BulkDeleteProgressDto> onProgress);
+    BulkDeleteProgressDto deleteByCategory(Long categoryId, Consumer<BulkDeleteProgressDto> onProgress);
+
+    // Reconstruye product_view (modelo de lectura) desde products, por bloques
+    ProductViewRebuildResponseDto rebuildView();
+
+    // Feed de cambios: altas/modificaciones (UPSERT) y borrados (DELETE) con seq > since
+    ProductChangesResponseDto findChanges(Long since, int limit);
+
+    // Estadísticas de precio calculadas con agregados SQL
+    PriceStatsDto priceStatsByCategory(Long categoryId);
+    PriceStatsDto priceStatsByOwner(Long userId);
+
+    // Agregados sobre el snapshot en memoria, en paralelo y sin consultar la base de datos
+    PriceStatsDto snapshotPriceStats(SnapshotQuery query);
+
     // Métodos de consulta relacionales
-    List<ProductResponseDto> findByUserId(Long userId);
-    List<ProductResponseDto> findByCategoryId(Long categoryId);
+    List<ProductResponseDto> findByUserId(Long userId, ProductSort sort);
+    List<ProductResponseDto> findByCategoryId(Long categoryId, ProductSort sort);
 
     // Búsqueda con filtros opcionales (v2)
     List<ProductResponseDto> findByUserIdWithFilters(
@@ -20,6 +47,19 @@ public interface ProductService {
             String name,
             Double minPrice,
             Double maxPrice,
-            Long categoryId
+            Long categoryId,
+            ProductSort sort
     );
+
+    // Búsqueda paginada con conteos por categoría y por rango de precio (priceEdges opcional)
+    ProductSearchResponseDto search(ProductFilter filter, ProductSort sort, int page, int size, List<Double> priceEdges);
+
+    // Escritura en streaming (JSON directo al OutputStream, sin lista intermedia)
+    void streamAll(ProductSort sort, OutputStream out);
+    void streamByUserId(Long userId, ProductSort sort, OutputStream out);
+    void streamByCategoryId(Long categoryId, ProductSort sort, OutputStream out);
+
+    // Proyección dinámica (?fields=): solo se consultan las columnas pedidas
+    List<Map<String, Object>> findFields(ProductFilter filter, ProductSort sort, String fields);
+    Map<String, Object> findByIdFields(Long id, String fields);
 }
\ No newline at end of file
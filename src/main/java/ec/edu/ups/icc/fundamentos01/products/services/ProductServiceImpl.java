@@ -2,36 +2,135 @@ package ec.edu.ups.icc.fundamentos01.products.services;
 
 import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.concurrency.SingleFlight;
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.ServiceUnavailableException;
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
 import ec.edu.ups.icc.fundamentos01.products.dtos.*;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductChangeEntity;
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
 import ec.edu.ups.icc.fundamentos01.products.models.Product;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
 import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductViewRepository;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.ProductSnapshot;
+import ec.edu.ups.icc.fundamentos01.products.snapshot.SnapshotQuery;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import ec.edu.ups.icc.fundamentos01.streaming.JsonStreamWriter;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.Set;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    // IDs por cada UPDATE masivo (una transacción por bloque)
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // Máximo de IDs aceptados por GET /api/products?ids=
+    private static final int MAX_BATCH_IDS = 500;
+
+    // Productos borrados por bloque en los borrados masivos
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    // Búsqueda con facetas: tamaño máximo de página y rangos de precio por defecto
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Buckets: < 25, [25, 50), ..., >= 1000
+    private static final List<Double> DEFAULT_PRICE_EDGES = List.of(25.0, 50.0, 100.0, 250.0, 500.0, 1000.0);
+
+    // Máximo de IDs del snapshot que se cargan con un IN; con más se filtra en SQL
+    private static final int MAX_SNAPSHOT_IDS = 1000;
+
+    // Máximo de cambios por página en GET /api/products/changes
+    private static final int MAX_CHANGES_PAGE = 1000;
+
+    // Claves de SingleFlight (prefijo común: ver forgetInFlightReads)
+    public static final String FLIGHT_PREFIX = "ProductService.";
+    private static final String FIND_BY_ID_FLIGHT = FLIGHT_PREFIX + "findById:";
+    private static final String FIND_BY_CATEGORY_FLIGHT = FLIGHT_PREFIX + "findByCategoryId:";
+
     private final ProductRepository productRepo;
     private final UserRepository userRepo;
     private final CategoryRepository categoryRepo;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight singleFlight;
+    private final ProductChangeRepository changeRepo;
+    // Modelo de lectura: los GET leen product_view; las escrituras la actualizan en su transacción
+    private final ProductViewRepository viewRepo;
+    private final ProductViewProjector productViews;
+    // Snapshot columnar en memoria (null si app.snapshot.enabled = false)
+    private final ProductSnapshot snapshot;
+    // El feed solo entrega cambios con esta antigüedad mínima: una transacción que tomó
+    // un seq menor pero confirmó después ya es visible cuando el consumidor avanza el cursor
+    private final Duration changesSettleWindow;
+    // Los eventos se difunden por SSE solo tras el commit (ver CatalogEventBroadcaster)
+    private final ApplicationEventPublisher events;
+    // Precios pendientes de los PUT que solo cambian el precio (null si app.price-buffer.enabled = false)
+    private final PriceWriteBuffer priceBuffer;
 
     public ProductServiceImpl(
             ProductRepository productRepo,
             UserRepository userRepo,
-            CategoryRepository categoryRepo) {
+            CategoryRepository categoryRepo,
+            JsonStreamWriter jsonStreamWriter,
+            PlatformTransactionManager transactionManager,
+            SingleFlight singleFlight,
+            ProductChangeRepository changeRepo,
+            ProductViewRepository viewRepo,
+            ProductViewProjector productViews,
+            Optional<ProductSnapshot> snapshot,
+            @Value("${app.changes.settle-window:2s}") Duration changesSettleWindow,
+            ApplicationEventPublisher events,
+            Optional<PriceWriteBuffer> priceBuffer) {
         this.productRepo = productRepo;
         this.userRepo = userRepo;
         this.categoryRepo = categoryRepo;
+        this.jsonStreamWriter = jsonStreamWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.singleFlight = singleFlight;
+        this.changeRepo = changeRepo;
+        this.viewRepo = viewRepo;
+        this.productViews = productViews;
+        this.snapshot = snapshot.orElse(null);
+        this.changesSettleWindow = changesSettleWindow;
+        this.events = events;
+        this.priceBuffer = priceBuffer.orElse(null);
     }
 
     @Override
+    @Transactional
     public ProductResponseDto create(CreateProductDto dto) {
 
         // 1. VALIDAR USER
@@ -54,166 +153,759 @@ public class ProductServiceImpl implements ProductService {
 
         // 5. PERSISTIR
         ProductEntity saved = productRepo.save(entity);
+        productViews.upsert(saved);
+        recordChange(saved.getId(), ProductChangeEntity.Type.UPSERT);
 
-        return toResponseDto(saved);
+        ProductResponseDto response = ProductMapper.toResponseDto(saved);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.CREATED, saved.getId(), response));
+        return response;
     }
 
     @Override
-    public List<ProductResponseDto> findAll() {
-        return productRepo.findAll()
+    @Transactional(readOnly = true)
+    public List<ProductResponseDto> findAll(ProductSort sort) {
+        return withPendingPrices(viewRepo.findAllSorted(sort.toSort(), sort.toLimit())
                 .stream()
-                .map(this::toResponseDto)
-                .toList();
+                .map(ProductMapper::toResponseDto)
+                .toList());
     }
 
+    /**
+     * Coalescido: las peticiones concurrentes por el mismo ID comparten una sola consulta.
+     * La transacción (solo lectura) la abre únicamente quien ejecuta el trabajo.
+     * Un precio pendiente en el buffer se responde sin consultar la base de datos.
+     */
     @Override
     public ProductResponseDto findById(Long id) {
-        return productRepo.findById(id)
-                .map(this::toResponseDto)
-                .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
+        ProductResponseDto pending = priceBuffer != null ? priceBuffer.find(id) : null;
+        if (pending != null) {
+            return pending;
+        }
+        return singleFlight.execute(FIND_BY_ID_FLIGHT + id, () -> findViewById(id));
+    }
+
+    /**
+     * Tras el commit de cualquier cambio del catálogo, las lecturas coalescidas que
+     * ya estaban en curso dejan de aceptar llamadores nuevos (read-after-write).
+     * Los listados por categoría se olvidan completos: un producto puede salir de
+     * una categoría y el nombre de la categoría va embebido en cada producto.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void forgetInFlightReads(CatalogEvent event) {
+        if (CatalogEvent.PRODUCT.equals(event.entity)) {
+            event.ids.forEach(id -> singleFlight.forget(FIND_BY_ID_FLIGHT + id));
+            singleFlight.forgetAll(FIND_BY_CATEGORY_FLIGHT);
+        } else {
+            singleFlight.forgetAll(FLIGHT_PREFIX);
+        }
+    }
+
+    private ProductResponseDto findViewById(Long id) {
+        return readOnlyTransaction.execute(status -> viewRepo.findById(id)
+                .map(ProductMapper::toResponseDto)
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id)));
     }
 
     @Override
-    public List<ProductResponseDto> findByUserId(Long userId) {
+    @Transactional(readOnly = true)
+    public ProductBatchResponseDto findByIds(List<Long> ids) {
+        // Sin duplicados y en el orden pedido
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Máximo " + MAX_BATCH_IDS + " IDs por petición");
+        }
 
-        // Validar que el usuario existe
-        if (!userRepo.existsById(userId)) {
-            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        // Una sola consulta por clave primaria sobre product_view
+        Map<Long, ProductViewEntity> found = new HashMap<>();
+        if (!requested.isEmpty()) {
+            viewRepo.findAllById(requested)
+                    .forEach(product -> found.put(product.getId(), product));
         }
 
-        return productRepo.findByOwnerId(userId)
-                .stream()
-                .map(this::toResponseDto)
-                .toList();
+        ProductBatchResponseDto response = new ProductBatchResponseDto();
+        response.products = new ArrayList<>(found.size());
+        response.missingIds = new ArrayList<>();
+
+        for (Long id : requested) {
+            ProductViewEntity product = found.get(id);
+            if (product != null) {
+                response.products.add(withPendingPrice(ProductMapper.toResponseDto(product)));
+            } else {
+                response.missingIds.add(id);
+            }
+        }
+        return response;
     }
 
     @Override
-    public List<ProductResponseDto> findByCategoryId(Long categoryId) {
+    @Transactional(readOnly = true)
+    public List<ProductResponseDto> findByUserId(Long userId, ProductSort sort) {
 
-        // Validar que la categoría existe
-        if (!categoryRepo.existsById(categoryId)) {
-            throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+        // Validar que el usuario existe; el resumen del dueño ya viene en cada fila
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
         }
 
-        return productRepo.findByCategoriesId(categoryId)
+        return withPendingPrices(viewRepo.findByOwnerId(userId, sort.toSort(), sort.toLimit())
                 .stream()
-                .map(this::toResponseDto)
-                .toList();
+                .map(ProductMapper::toResponseDto)
+                .toList());
+    }
+
+    /**
+     * Coalescido por categoría (ver findById); el precio pendiente se aplica
+     * por fuera, sobre el resultado compartido
+     */
+    @Override
+    public List<ProductResponseDto> findByCategoryId(Long categoryId, ProductSort sort) {
+        return withPendingPrices(singleFlight.execute(FIND_BY_CATEGORY_FLIGHT + categoryId + ":" + sort.key(), () ->
+                readOnlyTransaction.execute(status -> {
+
+                    // Validar que la categoría existe
+                    if (!categoryRepo.existsById(categoryId)) {
+                        throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+                    }
+
+                    return viewRepo.findByCategoryId(categoryId, sort.toSort(), sort.toLimit())
+                            .stream()
+                            .map(ProductMapper::toResponseDto)
+                            .toList();
+                })));
     }
 
+    /**
+     * Con app.price-buffer.enabled, un PUT que solo cambia el precio queda
+     * pendiente en PriceWriteBuffer y se responde sin transacción; el resto
+     * se guarda en el momento.
+     */
     @Override
     public ProductResponseDto update(Long id, UpdateProductDto dto) {
+        if (priceBuffer != null) {
+            ProductResponseDto buffered = priceBuffer.tryBuffer(id, dto, () -> findViewById(id));
+            if (buffered != null) {
+                return buffered;
+            }
+        }
+        return transactionTemplate.execute(status -> updateNow(id, dto));
+    }
+
+    private ProductResponseDto updateNow(Long id, UpdateProductDto dto) {
+        flushPendingPrice(id);
 
         // 1. BUSCAR PRODUCTO EXISTENTE
         ProductEntity existing = productRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
 
-        // 2. VALIDAR NUEVAS CATEGORÍAS
-        Set<CategoryEntity> newCategories = validateAndGetCategories(dto.categoryIds);
-
-        // 3. ACTUALIZAR CAMPOS BÁSICOS DIRECTAMENTE EN LA ENTIDAD
+        // 2. ACTUALIZAR CAMPOS BÁSICOS DIRECTAMENTE EN LA ENTIDAD
         existing.setName(dto.name != null ? dto.name : existing.getName());
         existing.setPrice(dto.price != null ? dto.price : existing.getPrice());
         existing.setDescription(dto.description != null ? dto.description : existing.getDescription());
 
-        // 4. ACTUALIZAR CATEGORÍAS (N:N)
-        existing.clearCategories();
-        existing.setCategories(newCategories);
+        // 3. ACTUALIZAR CATEGORÍAS (N:N) como diff contra el conjunto actual
+        applyCategoryDiff(existing, dto.categoryIds);
 
-        // 5. PERSISTIR Y RESPONDER
+        // 4. PERSISTIR Y RESPONDER (el precio de este PUT reemplaza al pendiente)
+        discardPendingPriceAfterCommit(id);
         ProductEntity saved = productRepo.save(existing);
-        return toResponseDto(saved);
+        productViews.upsert(saved);
+        recordChange(saved.getId(), ProductChangeEntity.Type.UPSERT);
+
+        ProductResponseDto response = ProductMapper.toResponseDto(saved);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.UPDATED, saved.getId(), response));
+        return response;
     }
 
     @Override
+    @Transactional
+    public ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto) {
+
+        if (dto.getStock() != null) {
+            throw new BadRequestException("El producto no maneja stock");
+        }
+
+        // Un precio pendiente en el buffer es el actual: se guarda antes y el PATCH se aplica sobre él
+        flushPendingPrice(id);
+
+        // 1. BUSCAR PRODUCTO EXISTENTE
+        ProductEntity existing = productRepo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
+
+        // 2. APLICAR CAMBIOS EN EL DOMINIO (valida reglas de negocio)
+        Product product = Product.fromEntity(existing).partialUpdate(dto);
+
+        if (!product.getName().equals(existing.getName())
+                && productRepo.findByName(product.getName()).isPresent()) {
+            throw new ConflictException("El nombre del producto ya está registrado");
+        }
+
+        // 3. COPIAR A LA ENTIDAD: con @DynamicUpdate solo se escriben las columnas cambiadas
+        existing.setName(product.getName());
+        existing.setPrice(product.getPrice());
+        existing.setDescription(product.getDescription());
+
+        // 4. CATEGORÍAS: solo si vienen en el body, como diff
+        if (dto.getCategoryIds() != null) {
+            applyCategoryDiff(existing, dto.getCategoryIds());
+        }
+
+        discardPendingPriceAfterCommit(id);
+        ProductEntity saved = productRepo.save(existing);
+        productViews.upsert(saved);
+        recordChange(saved.getId(), ProductChangeEntity.Type.UPSERT);
+
+        ProductResponseDto response = ProductMapper.toResponseDto(saved);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.UPDATED, saved.getId(), response));
+        return response;
+    }
+
+    @Override
+    @Transactional
     public void delete(Long id) {
 
         ProductEntity product = productRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
 
-        // Eliminación física
+        // Eliminación física; queda una lápida en el feed de cambios
         productRepo.delete(product);
+        discardPendingPriceAfterCommit(id);
+        productViews.delete(List.of(id));
+        recordChange(id, ProductChangeEntity.Type.DELETE);
+        events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.DELETED, id, null));
     }
 
-    // ============== MÉTODOS HELPER ==============
+    // ============== OPERACIONES MASIVAS ==============
+
+    @Override
+    public BulkRepriceResponseDto bulkReprice(BulkRepriceDto dto) {
+
+        // 1. VALIDAR PETICIÓN
+        if ((dto.percentage == null) == (dto.amount == null)) {
+            throw new BadRequestException("Debe indicar percentage o amount (solo uno)");
+        }
+        if ((dto.percentage != null && !Double.isFinite(dto.percentage))
+                || (dto.amount != null && !Double.isFinite(dto.amount))) {
+            throw new BadRequestException("percentage y amount deben ser números finitos");
+        }
+        if (dto.percentage != null && dto.percentage <= -100) {
+            throw new BadRequestException("El porcentaje debe ser mayor a -100");
+        }
+
+        boolean anyCategory = dto.categoryIds != null && !dto.categoryIds.isEmpty();
+        if (!anyCategory && dto.userId == null) {
+            throw new BadRequestException("Debe filtrar por categoryIds y/o userId");
+        }
+
+        // 2. VALIDAR FILTROS
+        if (dto.userId != null && !userRepo.existsById(dto.userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + dto.userId);
+        }
+        Set<Long> categoryIds = anyCategory ? dto.categoryIds : Set.of(-1L);
+        if (anyCategory && categoryRepo.findAllById(categoryIds).size() != categoryIds.size()) {
+            throw new NotFoundException("Alguna de las categorías no existe: " + categoryIds);
+        }
+
+        // 3. UPDATE POR BLOQUES DE IDs (keyset), cada uno en su propia transacción corta
+        // (los precios pendientes se guardan antes: el ajuste es relativo al precio actual)
+        if (priceBuffer != null) {
+            priceBuffer.flush();
+        }
+        long start = System.currentTimeMillis();
+        BulkRepriceResponseDto result = new BulkRepriceResponseDto();
+
+        Double factor = dto.percentage != null ? 1 + dto.percentage / 100 : null;
+        Double amount = dto.percentage != null ? null : dto.amount;
+
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            // IDs del bloque (también se registran en el feed de cambios); el último es el siguiente cursor
+            List<Long> ids = transactionTemplate.execute(status -> {
+                // Hora de cada bloque: el feed de cambios cuenta la ventana de asentamiento desde aquí
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> chunk = productRepo.findRepriceIds(from, dto.userId, anyCategory, categoryIds,
+                        factor, amount, Limit.of(BULK_CHUNK_SIZE));
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+                changeRepo.recordUpserts(chunk, now);
+                events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.UPDATED, chunk, null));
+
+                result.affectedRows += factor != null
+                        ? productRepo.multiplyPrice(factor, now, chunk)
+                        : productRepo.addToPrice(amount, now, chunk);
+                productViews.refreshPrices(chunk);
+                return chunk;
+            });
+
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            result.chunks++;
+            if (ids.size() < BULK_CHUNK_SIZE) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    @Override
+    public BulkDeleteProgressDto deleteByOwner(Long userId, Consumer<BulkDeleteProgressDto> onProgress) {
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        }
+        return deleteInChunks(
+                () -> productRepo.findIdsByOwnerId(userId, Limit.of(DELETE_CHUNK_SIZE)),
+                onProgress
+        );
+    }
+
+    @Override
+    public BulkDeleteProgressDto deleteByCategory(Long categoryId, Consumer<BulkDeleteProgressDto> onProgress) {
+        if (!categoryRepo.existsById(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+        }
+        return deleteInChunks(
+                () -> productRepo.findIdsByCategoryId(categoryId, Limit.of(DELETE_CHUNK_SIZE)),
+                onProgress
+        );
+    }
 
     /**
-     * Valida y obtiene las categorías por sus IDs
+     * Repite: tomar el siguiente bloque de IDs y borrarlo en una transacción corta,
+     * hasta que no queden productos. Entre bloques los locks se liberan.
      */
-    private Set<CategoryEntity> validateAndGetCategories(Set<Long> categoryIds) {
-        Set<CategoryEntity> categories = new HashSet<>();
+    private BulkDeleteProgressDto deleteInChunks(
+            Supplier<List<Long>> nextChunk,
+            Consumer<BulkDeleteProgressDto> onProgress
+    ) {
+        long start = System.currentTimeMillis();
+        BulkDeleteProgressDto progress = new BulkDeleteProgressDto();
+
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = nextChunk.get();
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                changeRepo.recordDeletes(ids, LocalDateTime.now());
+                events.publishEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.DELETED, ids, null));
+                productViews.delete(ids);
+                return productRepo.deleteAllByIdIn(ids);
+            });
+
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+
+            progress.chunk++;
+            progress.deletedInChunk = deleted;
+            progress.totalDeleted += deleted;
+            progress.elapsedMillis = System.currentTimeMillis() - start;
+            onProgress.accept(progress);
+        }
+
+        progress.deletedInChunk = 0;
+        progress.done = true;
+        progress.elapsedMillis = System.currentTimeMillis() - start;
+        onProgress.accept(progress);
+        return progress;
+    }
+
+    // ============== BÚSQUEDA CON FACETAS ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResponseDto search(ProductFilter filter, ProductSort sort, int page, int size, List<Double> priceEdges) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new BadRequestException("page debe ser >= 0 y size entre 1 y " + MAX_SEARCH_PAGE_SIZE);
+        }
+        List<Double> edges = priceEdges != null && !priceEdges.isEmpty() ? priceEdges : DEFAULT_PRICE_EDGES;
+        for (int i = 0; i < edges.size(); i++) {
+            Double edge = edges.get(i);
+            if (edge == null || !Double.isFinite(edge)) {
+                throw new BadRequestException("priceBuckets solo admite números finitos");
+            }
+            if (i > 0 && edge <= edges.get(i - 1)) {
+                throw new BadRequestException("priceBuckets debe ser una lista creciente de precios");
+            }
+        }
+        if (filter.ownerId != null && !userRepo.existsById(filter.ownerId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + filter.ownerId);
+        }
+
+        ProductSearchResponseDto response = new ProductSearchResponseDto();
+        response.page = page;
+        response.size = size;
+
+        // 1. HISTOGRAMA DE PRECIOS: una fila; la suma de los buckets es el total del filtro
+        long[] bucketCounts = viewRepo.countByPriceBucket(filter, edges);
+        response.priceBuckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            ProductSearchResponseDto.PriceBucketDto bucket = new ProductSearchResponseDto.PriceBucketDto();
+            bucket.from = i > 0 ? edges.get(i - 1) : null;
+            bucket.to = i < edges.size() ? edges.get(i) : null;
+            bucket.count = bucketCounts[i];
+            response.priceBuckets.add(bucket);
+            response.total += bucketCounts[i];
+        }
+
+        // 2. CONTEO POR CATEGORÍA: un GROUP BY en lugar de una consulta por categoría
+        response.categoryFacets = productRepo.countByCategory(filter).stream()
+                .map(row -> {
+                    ProductSearchResponseDto.CategoryFacetDto facet = new ProductSearchResponseDto.CategoryFacetDto();
+                    facet.id = (Long) row[0];
+                    facet.name = (String) row[1];
+                    facet.count = ((Number) row[2]).longValue();
+                    return facet;
+                })
+                .toList();
+
+        // 3. PÁGINA: IDs ordenados y luego los productos con sus relaciones en una consulta
+        response.products = new ArrayList<>();
+        if ((long) page * size < response.total) {
+            List<Long> ids = viewRepo.findIds(filter, sort, page * size, size);
+            Map<Long, ProductViewEntity> found = new HashMap<>();
+            viewRepo.findAllById(ids).forEach(p -> found.put(p.getId(), p));
+            for (Long id : ids) {
+                ProductViewEntity product = found.get(id);
+                if (product != null) {
+                    response.products.add(toResponseWithPendingPrice(product));
+                }
+            }
+        }
+        return response;
+    }
+
+    // ============== SNAPSHOT EN MEMORIA ==============
+
+    @Override
+    public PriceStatsDto snapshotPriceStats(SnapshotQuery query) {
+        if (snapshot == null || !snapshot.isReady()) {
+            throw new ServiceUnavailableException("El snapshot en memoria no está disponible (app.snapshot.enabled)");
+        }
+        if (query.minPrice != null && query.maxPrice != null && query.minPrice > query.maxPrice) {
+            throw new BadRequestException("minPrice no puede ser mayor que maxPrice");
+        }
+        return snapshot.priceStats(query);
+    }
+
+    // ============== MODELO DE LECTURA ==============
+
+    @Override
+    public ProductViewRebuildResponseDto rebuildView() {
+        long start = System.currentTimeMillis();
+        ProductViewRebuildResponseDto result = new ProductViewRebuildResponseDto();
+        result.projected = productViews.rebuild();
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    // ============== ESTADÍSTICAS DE PRECIO ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public PriceStatsDto priceStatsByCategory(Long categoryId) {
+        if (!categoryRepo.existsById(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+        }
+        return toPriceStats(viewRepo.findPriceStatsByCategoryId(categoryId).get(0));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PriceStatsDto priceStatsByOwner(Long userId) {
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        }
+        return toPriceStats(viewRepo.findPriceStatsByOwnerId(userId).get(0));
+    }
 
-        for (Long categoryId : categoryIds) {
-            CategoryEntity category = categoryRepo.findById(categoryId)
-                    .orElseThrow(() -> new NotFoundException("Categoría no encontrada: " + categoryId));
-            categories.add(category);
+    private static PriceStatsDto toPriceStats(Object[] row) {
+        PriceStatsDto stats = new PriceStatsDto();
+        stats.count = ((Number) row[0]).longValue();
+        stats.minPrice = toDouble(row[1]);
+        stats.maxPrice = toDouble(row[2]);
+        stats.avgPrice = toDouble(row[3]);
+        stats.p50 = toDouble(row[4]);
+        stats.p90 = toDouble(row[5]);
+        stats.p99 = toDouble(row[6]);
+        return stats;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    // ============== FEED DE CAMBIOS ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductChangesResponseDto findChanges(Long since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_PAGE) {
+            throw new BadRequestException("limit debe estar entre 1 y " + MAX_CHANGES_PAGE);
+        }
+        long cursor = since != null ? since : 0L;
+
+        // Se pide una fila extra para saber si hay más cambios disponibles
+        List<ProductChangeEntity> page = changeRepo.findPage(
+                cursor, LocalDateTime.now().minus(changesSettleWindow), Limit.of(limit + 1));
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
+
+        // Dentro de la página solo importa el último cambio de cada producto
+        Map<Long, ProductChangeEntity> latest = new LinkedHashMap<>();
+        for (ProductChangeEntity change : page) {
+            latest.remove(change.getProductId());
+            latest.put(change.getProductId(), change);
+        }
+
+        // Estado actual de los productos con UPSERT, en una sola consulta
+        List<Long> upsertIds = latest.values().stream()
+                .filter(change -> change.getType() == ProductChangeEntity.Type.UPSERT)
+                .map(ProductChangeEntity::getProductId)
+                .toList();
+        Map<Long, ProductViewEntity> products = new HashMap<>();
+        if (!upsertIds.isEmpty()) {
+            viewRepo.findAllById(upsertIds).forEach(p -> products.put(p.getId(), p));
+        }
+
+        ProductChangesResponseDto response = new ProductChangesResponseDto();
+        response.changes = new ArrayList<>();
+        for (ProductChangeEntity change : latest.values()) {
+            ProductChangeDto dto = new ProductChangeDto();
+            dto.seq = change.getSeq();
+            dto.productId = change.getProductId();
+            dto.type = change.getType().name();
+            dto.changedAt = change.getChangedAt();
+
+            if (change.getType() == ProductChangeEntity.Type.UPSERT) {
+                ProductViewEntity product = products.get(change.getProductId());
+                if (product == null) {
+                    // Borrado después: su lápida llega con un seq posterior
+                    continue;
+                }
+                dto.product = ProductMapper.toResponseDto(product);
+            }
+            response.changes.add(dto);
         }
 
-        return categories;
+        response.nextCursor = page.isEmpty() ? cursor : page.get(page.size() - 1).getSeq();
+        response.hasMore = hasMore;
+        return response;
+    }
+
+    private void recordChange(Long productId, ProductChangeEntity.Type type) {
+        changeRepo.save(new ProductChangeEntity(productId, type, LocalDateTime.now()));
+    }
+
+    // ============== PRECIOS PENDIENTES (PriceWriteBuffer) ==============
+
+    private ProductResponseDto withPendingPrice(ProductResponseDto product) {
+        return priceBuffer != null ? priceBuffer.overlay(product) : product;
+    }
+
+    private ProductResponseDto toResponseWithPendingPrice(ProductViewEntity view) {
+        return withPendingPrice(ProductMapper.toResponseDto(view));
+    }
+
+    private List<ProductResponseDto> withPendingPrices(List<ProductResponseDto> products) {
+        return priceBuffer != null ? priceBuffer.overlay(products) : products;
     }
 
     /**
-     * Convierte ProductEntity a DTO incluyendo categorías (N:N)
-     * Usa estructura anidada para mejor semántica
+     * Antes de leer el producto para escribirlo: así no lo pisa un vaciado en curso
      */
-    private ProductResponseDto toResponseDto(ProductEntity entity) {
-        ProductResponseDto dto = new ProductResponseDto();
-
-        // Campos básicos
-        dto.id = entity.getId();
-        dto.name = entity.getName();
-        dto.price = entity.getPrice();
-        dto.description = entity.getDescription();
-
-        // Crear objeto User anidado
-        ProductResponseDto.UserSummaryDto userDto = new ProductResponseDto.UserSummaryDto();
-        userDto.id = entity.getOwner().getId();
-        userDto.name = entity.getOwner().getName();
-        userDto.email = entity.getOwner().getEmail();
-        dto.user = userDto;
-
-        // Convertir Set<CategoryEntity> a List<CategorySummaryDto>
-        dto.categories = entity.getCategories().stream()
-                .map(this::toCategorySummary)
-                .sorted((c1, c2) -> c1.name.compareTo(c2.name)) // Ordenar por nombre
-                .toList();
+    private void flushPendingPrice(Long id) {
+        if (priceBuffer != null) {
+            priceBuffer.flush(id);
+        }
+    }
 
-        // Populate legacy field for backward compatibility
-        if (!dto.categories.isEmpty()) {
-            dto.category = dto.categories.get(0);
+    /**
+     * Al confirmar: si la escritura hace rollback, lo pendiente se conserva
+     */
+    private void discardPendingPriceAfterCommit(Long id) {
+        if (priceBuffer != null) {
+            priceBuffer.discardAfterCommit(id);
+        }
+    }
+
+    /**
+     * ?fields= con price: las filas se piden con id (se quita después si no se pidió)
+     * para reemplazar el precio pendiente
+     */
+    private List<Map<String, Object>> findFieldsWithPendingPrices(
+            FieldSelection selection, String fields, ProductFilter filter, ProductSort sort) {
+        if (priceBuffer == null || priceBuffer.isEmpty() || !selection.includes("price")) {
+            return viewRepo.findFields(selection, filter, sort);
+        }
+
+        boolean withId = selection.includes("id");
+        FieldSelection query = withId ? selection : FieldSelection.parse(fields + ",id", ProductResponseDto.FIELDS);
+        List<Map<String, Object>> rows = viewRepo.findFields(query, filter, sort);
+        List<Long> ids = rows.stream().map(row -> (Long) row.get("id")).toList();
+        priceBuffer.overlayFields(rows, ids);
+        if (!withId) {
+            rows.forEach(row -> row.remove("id"));
         }
+        return rows;
+    }
 
-        dto.createdAt = entity.getCreatedAt();
-        dto.updatedAt = entity.getUpdatedAt();
+    // ============== STREAMING ==============
 
-        return dto;
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(ProductSort sort, OutputStream out) {
+        jsonStreamWriter.writeArray(viewRepo.streamAll(sort.toSort()), this::toResponseWithPendingPrice, out);
     }
 
-    private ProductResponseDto.CategorySummaryDto toCategorySummary(CategoryEntity category) {
-        ProductResponseDto.CategorySummaryDto summary = new ProductResponseDto.CategorySummaryDto();
-        summary.id = category.getId();
-        summary.name = category.getName();
-        summary.description = category.getDescription();
-        return summary;
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByUserId(Long userId, ProductSort sort, OutputStream out) {
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        }
+        jsonStreamWriter.writeArray(viewRepo.streamByOwnerId(userId, sort.toSort()), this::toResponseWithPendingPrice, out);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void streamByCategoryId(Long categoryId, ProductSort sort, OutputStream out) {
+        if (!categoryRepo.existsById(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+        }
+        jsonStreamWriter.writeArray(viewRepo.streamByCategoryId(categoryId, sort.toSort()), this::toResponseWithPendingPrice, out);
+    }
+
+    // ============== PROYECCIÓN DINÁMICA (?fields=) ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFields(ProductFilter filter, ProductSort sort, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponseDto.FIELDS);
+
+        if (filter.ownerId != null && !userRepo.existsById(filter.ownerId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + filter.ownerId);
+        }
+        // La categoría solo se valida cuando es el alcance de la consulta (no un filtro opcional)
+        if (filter.ownerId == null && filter.categoryId != null && !categoryRepo.existsById(filter.categoryId)) {
+            throw new NotFoundException("Categoría no encontrada con ID: " + filter.categoryId);
+        }
+
+        return findFieldsWithPendingPrices(selection, fields, filter, sort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> findByIdFields(Long id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponseDto.FIELDS);
+
+        return findFieldsWithPendingPrices(selection, fields, ProductFilter.byId(id), ProductSort.byId())
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
+    }
+
+    // ============== MÉTODOS HELPER ==============
+
+    /**
+     * Valida y obtiene las categorías por sus IDs
+     */
+    private Set<CategoryEntity> validateAndGetCategories(Set<Long> categoryIds) {
+        // Una consulta, ya en el orden por nombre que usan las respuestas
+        List<CategoryEntity> found = categoryRepo.findByIdInOrderByNameAsc(categoryIds);
+        if (found.size() != categoryIds.size()) {
+            Set<Long> missing = new HashSet<>(categoryIds);
+            found.forEach(category -> missing.remove(category.getId()));
+            throw new NotFoundException("Categoría no encontrada: " + missing.iterator().next());
+        }
+
+        return new LinkedHashSet<>(found);
+    }
+
+    /**
+     * Sincroniza las categorías del producto con los IDs pedidos modificando
+     * la colección en sitio: Hibernate solo borra/inserta las filas de
+     * product_categories que cambian (no recrea toda la colección).
+     */
+    private void applyCategoryDiff(ProductEntity product, Set<Long> categoryIds) {
+        Set<Long> currentIds = new HashSet<>();
+        for (CategoryEntity category : product.getCategories()) {
+            currentIds.add(category.getId());
+        }
+
+        // Quitar las que ya no están
+        product.getCategories().removeIf(category -> !categoryIds.contains(category.getId()));
+
+        // Agregar solo las nuevas (una consulta para todas)
+        Set<Long> toAdd = new HashSet<>(categoryIds);
+        toAdd.removeAll(currentIds);
+        if (!toAdd.isEmpty()) {
+            List<CategoryEntity> found = categoryRepo.findAllById(toAdd);
+            if (found.size() != toAdd.size()) {
+                found.forEach(category -> toAdd.remove(category.getId()));
+                throw new NotFoundException("Categoría no encontrada: " + toAdd.iterator().next());
+            }
+            found.forEach(product::addCategory);
+
+            // Las nuevas quedan al final; se reordena la colección en sitio (mismas
+            // instancias) para que la respuesta mantenga el orden por nombre.
+            // Hibernate compara contra su snapshot y solo inserta las filas nuevas.
+            List<CategoryEntity> ordered = product.getCategories().stream()
+                    .sorted(Comparator.comparing(CategoryEntity::getName))
+                    .toList();
+            product.getCategories().clear();
+            product.getCategories().addAll(ordered);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> findByUserIdWithFilters(
             Long userId,
             String name,
             Double minPrice,
             Double maxPrice,
-            Long categoryId
+            Long categoryId,
+            ProductSort sort
     ) {
         // Validar que el usuario existe
         if (!userRepo.existsById(userId)) {
             throw new NotFoundException("Usuario no encontrado con ID: " + userId);
         }
 
+        // Con el snapshot activo el filtro corre en memoria y la BD solo trae las filas
+        // por clave primaria; con muchas coincidencias conviene el filtro en SQL
+        if (snapshot != null && snapshot.isReady()) {
+            SnapshotQuery query = new SnapshotQuery();
+            query.ownerId = userId;
+            query.name = name;
+            query.minPrice = minPrice;
+            query.maxPrice = maxPrice;
+            query.categoryIds = categoryId != null ? Set.of(categoryId) : null;
+
+            long[] ids = snapshot.filter(query);
+            if (ids.length == 0) {
+                return List.of();
+            }
+            if (ids.length <= MAX_SNAPSHOT_IDS) {
+                return viewRepo.findByIdInWithFilters(Arrays.stream(ids).boxed().toList(),
+                                userId, name, minPrice, maxPrice, categoryId, sort.toSort(), sort.toLimit())
+                        .stream()
+                        .map(this::toResponseWithPendingPrice)
+                        .toList();
+            }
+        }
+
         // Consulta con filtros a nivel de base de datos
-        return productRepo.findByUserIdWithFilters(userId, name, minPrice, maxPrice, categoryId)
+        return viewRepo.findByUserIdWithFilters(userId, name, minPrice, maxPrice, categoryId, sort.toSort(), sort.toLimit())
                 .stream()
-                .map(this::toResponseDto)
+                .map(this::toResponseWithPendingPrice)
                 .toList();
     }
 }
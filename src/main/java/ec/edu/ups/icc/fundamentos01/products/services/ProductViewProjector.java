@@ -0,0 +1,128 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductViewRepository;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene product_view sincronizada con products, users y categories.
+ *
+ * Los métodos de sincronización exigen una transacción abierta (MANDATORY):
+ * la fila de la vista se escribe en la misma transacción que el cambio, así
+ * que nunca se confirma uno sin el otro. rebuild() abre sus propias
+ * transacciones por bloque.
+ */
+@Component
+public class ProductViewProjector {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ProductRepository productRepo;
+    private final ProductViewRepository viewRepo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductViewProjector(
+            ProductRepository productRepo,
+            ProductViewRepository viewRepo,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.productRepo = productRepo;
+        this.viewRepo = viewRepo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Alta o modificación de un producto ya guardado (con dueño y categorías cargados)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void upsert(ProductEntity product) {
+        // Flush primero: updatedAt lo asigna @PreUpdate al escribir el producto
+        entityManager.flush();
+        viewRepo.save(ProductMapper.toView(product));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void delete(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            viewRepo.deleteAllByIdIn(productIds);
+        }
+    }
+
+    /**
+     * Ajuste masivo de precios: se copian desde products con un UPDATE
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshPrices(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            viewRepo.refreshPrices(productIds);
+        }
+    }
+
+    /**
+     * El dueño cambió nombre o email: un UPDATE sobre sus filas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshOwner(UserEntity owner) {
+        viewRepo.updateOwner(owner.getId(), owner.getName(), owner.getEmail());
+    }
+
+    /**
+     * La categoría cambió: se vuelve a serializar el JSON de categorías de sus productos
+     * (el orden por nombre también puede cambiar), por bloques de IDs
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshCategory(Long categoryId) {
+        entityManager.flush();
+        List<Long> ids = productRepo.findIdsByCategoryId(categoryId, Limit.unlimited());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            project(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    /**
+     * Reconstruye la vista completa desde products (recuperación).
+     * No la vacía antes: cada bloque se sobrescribe y al final se quitan las
+     * filas de productos que ya no existen, así las lecturas siguen funcionando.
+     *
+     * @return cantidad de productos proyectados
+     */
+    public long rebuild() {
+        long projected = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = productRepo.findIdsAfter(afterId, Limit.of(CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> project(ids));
+            projected += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        transactionTemplate.executeWithoutResult(status -> viewRepo.deleteOrphans());
+        return projected;
+    }
+
+    private void project(List<Long> ids) {
+        // Una consulta con dueño y categorías (ya ordenadas por nombre) por bloque
+        List<ProductEntity> products = productRepo.findAllWithRelationsByIdIn(ids);
+        // Las filas existentes se cargan en una consulta; así save() no hace un SELECT por fila
+        viewRepo.findAllById(ids);
+        viewRepo.saveAll(products.stream().map(ProductMapper::toView).toList());
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
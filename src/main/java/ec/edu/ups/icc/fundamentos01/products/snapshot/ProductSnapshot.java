@@ -0,0 +1,639 @@
+package ec.edu.ups.icc.fundamentos01.products.snapshot;
+
+import ec.edu.ups.icc.fundamentos01.config.warmstart.SnapshotIO;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductViewEntity;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductViewRepository;
+import ec.edu.ups.icc.fundamentos01.streaming.CatalogEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Copia columnar del catálogo en memoria para filtros y agregados sin base de datos.
+ *
+ * Una fila por producto en arreglos primitivos paralelos: ids, precios, dueños,
+ * código del nombre (diccionario) y un bitset de categorías con "words" longs
+ * por fila. Un id 0 marca una fila borrada; se compacta cuando hay muchas.
+ *
+ * Las consultas recorren bloques de CHUNK filas en el ForkJoinPool común: una
+ * pasada cuenta coincidencias por bloque y otra escribe los IDs en su posición,
+ * así lo único que crece con el resultado es el arreglo devuelto.
+ *
+ * Se carga al arrancar desde product_view y product_categories (o desde el
+ * archivo de arranque en caliente, ver WarmStartSnapshot) y se actualiza
+ * con los CatalogEvent de productos ya confirmados. Activar con app.snapshot.enabled.
+ * Métricas: snapshot.rows.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class ProductSnapshot {
+
+    private static final int CHUNK = 16_384;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long DEAD = 0L;
+
+    private final ProductViewRepository viewRepo;
+    private final ProductRepository productRepo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Aplica los eventos de uno en uno (ver onCatalogEvent); no bloquea las consultas
+    private final Object refreshLock = new Object();
+
+    // ============== COLUMNAS (protegidas por lock) ==============
+
+    private int size;
+    private int dead;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private long[] ownerIds = new long[INITIAL_CAPACITY];
+    private int[] nameCodes = new int[INITIAL_CAPACITY];
+    private int words = 1;
+    private long[] categoryBits = new long[INITIAL_CAPACITY];
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    // ============== DICCIONARIOS ==============
+
+    private final Map<Long, Integer> categoryBit = new HashMap<>();
+    private final Map<String, Integer> nameCodeByName = new HashMap<>();
+    private final List<String> lowerNames = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    public ProductSnapshot(
+            ProductViewRepository viewRepo,
+            ProductRepository productRepo,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry) {
+        this.viewRepo = viewRepo;
+        this.productRepo = productRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        registry.gauge("snapshot.rows", this, snapshot -> snapshot.rowById.size());
+    }
+
+    /**
+     * true cuando terminó la carga inicial; antes los servicios consultan la base de datos
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ============== CARGA ==============
+
+    /**
+     * Después de DataLoader (los CommandLineRunner terminan antes de ApplicationReadyEvent)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            // Ya restaurado desde el archivo de arranque en caliente
+            if (ready) {
+                return;
+            }
+            clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = viewRepo.streamSnapshotRows()) {
+                    rows.forEach(row -> upsertRow((Long) row[0], (String) row[1], (Double) row[2], (Long) row[3]));
+                }
+                try (Stream<Object[]> links = productRepo.streamCategoryLinks()) {
+                    links.forEach(link -> {
+                        Integer row = rowById.get(((Number) link[0]).longValue());
+                        if (row != null) {
+                            setCategory(row, ((Number) link[1]).longValue());
+                        }
+                    });
+                }
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============== ARCHIVO DE ARRANQUE EN CALIENTE ==============
+
+    /**
+     * Escribe las filas vivas columna por columna y los diccionarios.
+     * Formato: filas, words, ids[], prices[], ownerIds[], nameCodes[], categoryBits[],
+     * categorías (id por bit) y nombres (por código).
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int rows = rowById.size();
+            out.writeInt(rows);
+            out.writeInt(words);
+            for (int row = 0; row < size; row++) {
+                if (ids[row] != DEAD) out.writeLong(ids[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                if (ids[row] != DEAD) out.writeDouble(prices[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                if (ids[row] != DEAD) out.writeLong(ownerIds[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                if (ids[row] != DEAD) out.writeInt(nameCodes[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                if (ids[row] != DEAD) {
+                    for (int word = 0; word < words; word++) {
+                        out.writeLong(categoryBits[row * words + word]);
+                    }
+                }
+            }
+
+            long[] categoryByBit = new long[categoryBit.size()];
+            categoryBit.forEach((categoryId, bit) -> categoryByBit[bit] = categoryId);
+            out.writeInt(categoryByBit.length);
+            for (long categoryId : categoryByBit) {
+                out.writeLong(categoryId);
+            }
+
+            String[] nameByCode = new String[lowerNames.size()];
+            nameCodeByName.forEach((name, code) -> nameByCode[code] = name);
+            out.writeInt(nameByCode.length);
+            for (String name : nameByCode) {
+                SnapshotIO.writeString(out, name);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restaura lo escrito por writeTo. Las columnas se copian en bloque desde el
+     * buffer (vistas LongBuffer/DoubleBuffer/IntBuffer), sin decodificar fila por fila.
+     * Deja el buffer posicionado al final de la sección.
+     */
+    public void readFrom(ByteBuffer in) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            int rows = in.getInt();
+            int rowWords = in.getInt();
+            ensureCapacity(rows);
+            words = rowWords;
+            categoryBits = new long[ids.length * words];
+
+            in.asLongBuffer().get(ids, 0, rows);
+            in.position(in.position() + rows * Long.BYTES);
+            in.asDoubleBuffer().get(prices, 0, rows);
+            in.position(in.position() + rows * Double.BYTES);
+            in.asLongBuffer().get(ownerIds, 0, rows);
+            in.position(in.position() + rows * Long.BYTES);
+            in.asIntBuffer().get(nameCodes, 0, rows);
+            in.position(in.position() + rows * Integer.BYTES);
+            in.asLongBuffer().get(categoryBits, 0, rows * words);
+            in.position(in.position() + rows * words * Long.BYTES);
+
+            size = rows;
+            for (int row = 0; row < rows; row++) {
+                rowById.put(ids[row], row);
+            }
+
+            int categories = in.getInt();
+            for (int bit = 0; bit < categories; bit++) {
+                categoryBit.put(in.getLong(), bit);
+            }
+
+            int names = in.getInt();
+            for (int code = 0; code < names; code++) {
+                String name = SnapshotIO.readString(in);
+                nameCodeByName.put(name, code);
+                lowerNames.add(name.toLowerCase());
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============== ACTUALIZACIÓN INCREMENTAL ==============
+
+    /**
+     * Cambios de productos ya confirmados. Los listeners de commits distintos pueden
+     * correr en otro orden que los commits, así que no se aplica el dato del evento:
+     * las filas se releen de product_view con refreshLock tomado, de modo que cada
+     * relectura es posterior a la ya aplicada y un evento atrasado no pisa un estado
+     * más nuevo. La lectura va fuera del lock de columnas: las consultas no la esperan.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (!CatalogEvent.PRODUCT.equals(event.entity)) {
+            return;
+        }
+
+        synchronized (refreshLock) {
+            if (CatalogEvent.DELETED.equals(event.type)) {
+                write(() -> event.ids.forEach(this::removeRow));
+                return;
+            }
+
+            List<ProductViewEntity> views = viewRepo.findAllById(event.ids);
+            Set<Long> missing = new HashSet<>(event.ids);
+            write(() -> {
+                for (ProductViewEntity view : views) {
+                    missing.remove(view.getId());
+                    upsert(view.getId(), view.getName(), view.getPrice(), view.getOwnerId(),
+                            ProductMapper.parseCategories(view.getCategoriesJson()));
+                }
+                // Borrado después del evento: ya no existe
+                missing.forEach(this::removeRow);
+            });
+        }
+    }
+
+    private void upsert(Long id, String name, Double price, Long ownerId, List<ProductResponseDto.CategorySummaryDto> categories) {
+        int row = upsertRow(id, name, price, ownerId);
+        for (ProductResponseDto.CategorySummaryDto category : categories) {
+            setCategory(row, category.id);
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============== CONSULTAS ==============
+
+    /**
+     * IDs de los productos que cumplen el filtro, en orden de fila
+     */
+    public long[] filter(SnapshotQuery query) {
+        lock.readLock().lock();
+        try {
+            Filter filter = compile(query);
+            int chunks = (size + CHUNK - 1) / CHUNK;
+            if (filter == null || chunks == 0) {
+                return new long[0];
+            }
+
+            // 1. Contar por bloque y convertir los conteos en posiciones de inicio
+            int[] offsets = new int[chunks];
+            ForkJoinPool.commonPool().invoke(new ScanTask(filter, 0, chunks, offsets, null, null));
+            int total = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = offsets[chunk];
+                offsets[chunk] = total;
+                total += count;
+            }
+
+            // 2. Cada bloque escribe sus IDs a partir de su posición
+            long[] result = new long[total];
+            ForkJoinPool.commonPool().invoke(new ScanTask(filter, 0, chunks, offsets, result, null));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * count/min/max/avg de precio de los productos que cumplen el filtro
+     * (los percentiles quedan en null: requieren ordenar)
+     */
+    public PriceStatsDto priceStats(SnapshotQuery query) {
+        PriceStatsDto stats = new PriceStatsDto();
+        lock.readLock().lock();
+        try {
+            Filter filter = compile(query);
+            int chunks = (size + CHUNK - 1) / CHUNK;
+            if (filter == null || chunks == 0) {
+                return stats;
+            }
+
+            // Parciales por bloque: [count, min, max, sum]
+            double[] partials = new double[chunks * 4];
+            ForkJoinPool.commonPool().invoke(new ScanTask(filter, 0, chunks, null, null, partials));
+
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int base = chunk * 4;
+                stats.count += (long) partials[base];
+                min = Math.min(min, partials[base + 1]);
+                max = Math.max(max, partials[base + 2]);
+                sum += partials[base + 3];
+            }
+            if (stats.count > 0) {
+                stats.minPrice = min;
+                stats.maxPrice = max;
+                stats.avgPrice = sum / stats.count;
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre un rango de bloques dividiéndolo a la mitad hasta llegar a uno.
+     * Según qué arreglo reciba: cuenta (offsets), escribe IDs (result) o agrega precios (partials).
+     */
+    private final class ScanTask extends RecursiveAction {
+
+        private final Filter filter;
+        private final int fromChunk;
+        private final int toChunk;
+        private final int[] offsets;
+        private final long[] result;
+        private final double[] partials;
+
+        ScanTask(Filter filter, int fromChunk, int toChunk, int[] offsets, long[] result, double[] partials) {
+            this.filter = filter;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.offsets = offsets;
+            this.result = result;
+            this.partials = partials;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(
+                        new ScanTask(filter, fromChunk, mid, offsets, result, partials),
+                        new ScanTask(filter, mid, toChunk, offsets, result, partials)
+                );
+                return;
+            }
+
+            int from = fromChunk * CHUNK;
+            int to = Math.min(from + CHUNK, size);
+
+            if (partials != null) {
+                long count = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                double sum = 0;
+                for (int row = from; row < to; row++) {
+                    if (matches(row, filter)) {
+                        double price = prices[row];
+                        count++;
+                        min = Math.min(min, price);
+                        max = Math.max(max, price);
+                        sum += price;
+                    }
+                }
+                int base = fromChunk * 4;
+                partials[base] = count;
+                partials[base + 1] = min;
+                partials[base + 2] = max;
+                partials[base + 3] = sum;
+            } else if (result != null) {
+                int next = offsets[fromChunk];
+                for (int row = from; row < to; row++) {
+                    if (matches(row, filter)) {
+                        result[next++] = ids[row];
+                    }
+                }
+            } else {
+                int count = 0;
+                for (int row = from; row < to; row++) {
+                    if (matches(row, filter)) {
+                        count++;
+                    }
+                }
+                offsets[fromChunk] = count;
+            }
+        }
+    }
+
+    // ============== FILTRO COMPILADO ==============
+
+    /**
+     * Filtro traducido a las columnas: máscaras sobre el diccionario de nombres
+     * y sobre los bits de categoría
+     */
+    private static final class Filter {
+        boolean byOwner;
+        long ownerId;
+        double minPrice = Double.NEGATIVE_INFINITY;
+        double maxPrice = Double.POSITIVE_INFINITY;
+        long[] nameMask;
+        long[] categoryMask;
+        boolean allCategories;
+    }
+
+    /**
+     * null si ninguna fila puede cumplirlo (ej. una categoría que no existe en modo "todas")
+     */
+    private Filter compile(SnapshotQuery query) {
+        Filter filter = new Filter();
+        if (query.ownerId != null) {
+            filter.byOwner = true;
+            filter.ownerId = query.ownerId;
+        }
+        if (query.minPrice != null) filter.minPrice = query.minPrice;
+        if (query.maxPrice != null) filter.maxPrice = query.maxPrice;
+
+        if (query.name != null) {
+            // El texto se compara una vez por nombre distinto, no por fila
+            String needle = query.name.toLowerCase();
+            filter.nameMask = new long[(lowerNames.size() + 63) >>> 6];
+            for (int code = 0; code < lowerNames.size(); code++) {
+                if (lowerNames.get(code).contains(needle)) {
+                    filter.nameMask[code >>> 6] |= 1L << code;
+                }
+            }
+        }
+
+        if (query.categoryIds != null && !query.categoryIds.isEmpty()) {
+            filter.allCategories = query.allCategories;
+            filter.categoryMask = new long[words];
+            boolean anyKnown = false;
+            for (Long categoryId : query.categoryIds) {
+                Integer bit = categoryBit.get(categoryId);
+                if (bit == null) {
+                    if (query.allCategories) {
+                        return null;
+                    }
+                    continue;
+                }
+                filter.categoryMask[bit >>> 6] |= 1L << bit;
+                anyKnown = true;
+            }
+            if (!anyKnown) {
+                return null;
+            }
+        }
+        return filter;
+    }
+
+    private boolean matches(int row, Filter filter) {
+        if (ids[row] == DEAD) {
+            return false;
+        }
+        if (filter.byOwner && ownerIds[row] != filter.ownerId) {
+            return false;
+        }
+        double price = prices[row];
+        if (price < filter.minPrice || price > filter.maxPrice) {
+            return false;
+        }
+        if (filter.nameMask != null) {
+            int code = nameCodes[row];
+            if ((filter.nameMask[code >>> 6] & (1L << code)) == 0) {
+                return false;
+            }
+        }
+        if (filter.categoryMask != null) {
+            int base = row * words;
+            if (filter.allCategories) {
+                for (int word = 0; word < words; word++) {
+                    long mask = filter.categoryMask[word];
+                    if ((categoryBits[base + word] & mask) != mask) {
+                        return false;
+                    }
+                }
+            } else {
+                boolean any = false;
+                for (int word = 0; word < words && !any; word++) {
+                    any = (categoryBits[base + word] & filter.categoryMask[word]) != 0;
+                }
+                return any;
+            }
+        }
+        return true;
+    }
+
+    // ============== MUTACIONES (con el lock de escritura tomado) ==============
+
+    private int upsertRow(Long id, String name, Double price, Long ownerId) {
+        Integer existing = rowById.get(id);
+        int row;
+        if (existing != null) {
+            row = existing;
+            Arrays.fill(categoryBits, row * words, (row + 1) * words, 0L);
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(id, row);
+        }
+        ids[row] = id;
+        prices[row] = price;
+        ownerIds[row] = ownerId;
+        nameCodes[row] = nameCodeByName.computeIfAbsent(name, key -> {
+            lowerNames.add(key.toLowerCase());
+            return lowerNames.size() - 1;
+        });
+        return row;
+    }
+
+    private void setCategory(int row, long categoryId) {
+        int bit = categoryBit.computeIfAbsent(categoryId, key -> categoryBit.size());
+        if (bit >= words * 64) {
+            restride(words * 2);
+        }
+        categoryBits[row * words + (bit >>> 6)] |= 1L << bit;
+    }
+
+    private void removeRow(Long id) {
+        Integer row = rowById.remove(id);
+        if (row == null) {
+            return;
+        }
+        ids[row] = DEAD;
+        Arrays.fill(categoryBits, row * words, (row + 1) * words, 0L);
+        dead++;
+        if (dead > INITIAL_CAPACITY && dead > size / 4) {
+            compact();
+        }
+    }
+
+    /**
+     * Mueve las filas vivas al inicio, en el mismo orden
+     */
+    private void compact() {
+        int write = 0;
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == DEAD) {
+                continue;
+            }
+            if (write != row) {
+                ids[write] = ids[row];
+                prices[write] = prices[row];
+                ownerIds[write] = ownerIds[row];
+                nameCodes[write] = nameCodes[row];
+                System.arraycopy(categoryBits, row * words, categoryBits, write * words, words);
+                rowById.put(ids[write], write);
+            }
+            write++;
+        }
+        Arrays.fill(categoryBits, write * words, size * words, 0L);
+        size = write;
+        dead = 0;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(rows, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        ownerIds = Arrays.copyOf(ownerIds, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        categoryBits = Arrays.copyOf(categoryBits, capacity * words);
+    }
+
+    /**
+     * Más categorías que bits por fila: se copia cada fila con el nuevo ancho
+     */
+    private void restride(int newWords) {
+        long[] bits = new long[ids.length * newWords];
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(categoryBits, row * words, bits, row * newWords, words);
+        }
+        categoryBits = bits;
+        words = newWords;
+    }
+
+    private void clear() {
+        size = 0;
+        dead = 0;
+        words = 1;
+        ids = new long[INITIAL_CAPACITY];
+        prices = new double[INITIAL_CAPACITY];
+        ownerIds = new long[INITIAL_CAPACITY];
+        nameCodes = new int[INITIAL_CAPACITY];
+        categoryBits = new long[INITIAL_CAPACITY];
+        rowById.clear();
+        categoryBit.clear();
+        nameCodeByName.clear();
+        lowerNames.clear();
+        ready = false;
+    }
+}
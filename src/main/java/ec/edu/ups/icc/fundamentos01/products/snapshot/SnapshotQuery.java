@@ -0,0 +1,22 @@
+package ec.edu.ups.icc.fundamentos01.products.snapshot;
+
+import java.util.Set;
+
+/**
+ * Filtro sobre el snapshot en memoria. Los campos null no filtran.
+ */
+public class SnapshotQuery {
+
+    public Long ownerId;
+    public Double minPrice;
+    public Double maxPrice;
+
+    // Contiene el texto, sin distinguir mayúsculas (como LOWER(name) LIKE %name%)
+    public String name;
+
+    // Vacío o null = cualquier categoría
+    public Set<Long> categoryIds;
+
+    // true: debe tener todas las categorías; false: al menos una
+    public boolean allCategories;
+}
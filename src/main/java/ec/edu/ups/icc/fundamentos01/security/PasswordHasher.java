@@ -0,0 +1,147 @@
+package ec.edu.ups.icc.fundamentos01.security;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hash de contraseñas con BCrypt en un pool propio y acotado.
+ *
+ * BCrypt cuesta 2^cost iteraciones a propósito; hacerlo en los hilos de Tomcat
+ * los bloquearía durante picos de registros. Aquí cada hash se ejecuta en un
+ * pool de tamaño fijo con cola limitada: si la cola está llena la petición se
+ * rechaza con 503 en lugar de acumular trabajo sin límite.
+ *
+ * Configuración (app.security.password.*): cost, pool-size, queue-capacity.
+ * Métricas: password.hashing.queue.depth, password.hashing.active,
+ * password.hashing.duration y password.hashing.rejected.
+ */
+@Component
+public class PasswordHasher {
+
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+    // Hash fijo con el costo configurado para verificar cuando el usuario no existe
+    private final String dummyHash;
+    private final ThreadPoolExecutor executor;
+    private final Timer duration;
+    private final Counter rejected;
+
+    public PasswordHasher(
+            @Value("${app.security.password.cost:10}") int cost,
+            @Value("${app.security.password.pool-size:0}") int poolSize,
+            @Value("${app.security.password.queue-capacity:200}") int queueCapacity,
+            MeterRegistry registry
+    ) {
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+
+        // 0 = un hilo por núcleo: el hash es puro CPU
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.duration = Timer.builder("password.hashing.duration")
+                .description("Tiempo de cada hash o verificación de contraseña")
+                .tag("cost", String.valueOf(cost))
+                .register(registry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Tareas rechazadas por cola llena")
+                .register(registry);
+        registry.gauge("password.hashing.queue.depth", executor, pool -> pool.getQueue().size());
+        registry.gauge("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Hash BCrypt con el costo configurado
+     */
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifica la contraseña. Si el valor guardado no es BCrypt (contraseñas
+     * previas guardadas en claro) se compara en tiempo constante.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedPassword) {
+        if (storedPassword == null || rawPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!isHash(storedPassword)) {
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8)));
+        }
+        return submit(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * Verificación contra un hash que nada coincide, con el mismo costo que una real:
+     * un login con email inexistente tarda lo mismo que uno con contraseña incorrecta
+     *
+     * @return siempre false (o falla con 503 si la cola está llena, igual que matches)
+     */
+    public CompletableFuture<Boolean> matchesNothing(String rawPassword) {
+        String raw = rawPassword != null ? rawPassword : "";
+        return submit(() -> {
+            encoder.matches(raw, dummyHash);
+            return false;
+        });
+    }
+
+    /**
+     * true si el valor guardado debe recalcularse: está en claro o usa un costo menor al actual
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHash(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    private static boolean isHash(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith("$2");
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> duration.record(work), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Servidor ocupado procesando contraseñas, intente nuevamente"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
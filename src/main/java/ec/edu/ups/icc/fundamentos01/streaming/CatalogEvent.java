@@ -0,0 +1,42 @@
+package ec.edu.ups.icc.fundamentos01.streaming;
+
+import java.util.List;
+
+/**
+ * Cambio confirmado del catálogo enviado a los suscriptores de GET /api/products/stream.
+ *
+ * Las operaciones individuales traen el DTO resultante en data; las masivas
+ * (ajuste de precios, borrado por bloques) envían un evento por bloque solo con los IDs.
+ */
+public class CatalogEvent {
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    public String entity;
+    public String type;
+    public List<Long> ids;
+    public Object data;
+
+    public static CatalogEvent of(String entity, String type, Long id, Object data) {
+        return of(entity, type, List.of(id), data);
+    }
+
+    public static CatalogEvent of(String entity, String type, List<Long> ids, Object data) {
+        CatalogEvent event = new CatalogEvent();
+        event.entity = entity;
+        event.type = type;
+        event.ids = ids;
+        event.data = data;
+        return event;
+    }
+
+    // Nombre del evento SSE, ej. "product.updated"
+    public String name() {
+        return entity + "." + type;
+    }
+}
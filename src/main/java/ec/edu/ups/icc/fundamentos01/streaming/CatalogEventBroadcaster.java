@@ -0,0 +1,295 @@
+package ec.edu.ups.icc.fundamentos01.streaming;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Difunde por SSE los cambios del catálogo una vez confirmados.
+ *
+ * Las conexiones son SseEmitter (async de Servlet): no ocupan un hilo mientras
+ * esperan. Cada suscriptor tiene un buffer acotado; al llenarse se descarta el
+ * evento más antiguo (drop-oldest) o se cierra la conexión (disconnect). Un pool
+ * pequeño compartido vacía los buffers, así un cliente lento no frena a quien
+ * publica. Cada evento se serializa una sola vez para todos los suscriptores.
+ *
+ * Un envío bloqueado (el cliente no lee y el socket se llenó) ocuparía uno de
+ * esos pocos hilos: si un envío tarda más de send-timeout, el suscriptor se
+ * desconecta y su hilo se interrumpe (si el contenedor ignora la interrupción,
+ * el hilo se libera con su propio timeout de escritura).
+ *
+ * Configuración (app.events.sse.*): buffer-size, overflow, heartbeat,
+ * dispatch-threads, send-timeout y timeout.
+ * Métricas: sse.subscribers, sse.events.dropped, sse.subscribers.disconnected.
+ */
+@Component
+public class CatalogEventBroadcaster {
+
+    public enum OverflowPolicy { DROP_OLDEST, DISCONNECT }
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final OverflowPolicy defaultOverflow;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeats;
+    private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("ping").build();
+
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    public CatalogEventBroadcaster(
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${app.events.sse.buffer-size:256}") int bufferSize,
+            @Value("${app.events.sse.overflow:drop-oldest}") String overflow,
+            @Value("${app.events.sse.heartbeat:15s}") Duration heartbeatInterval,
+            @Value("${app.events.sse.dispatch-threads:2}") int dispatchThreads,
+            @Value("${app.events.sse.send-timeout:5s}") Duration sendTimeout,
+            @Value("${app.events.sse.timeout:30m}") Duration timeout
+    ) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.defaultOverflow = parsePolicy(overflow);
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, task -> {
+            Thread thread = new Thread(task, "sse-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(s -> s.offer(heartbeat)),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        // Revisión de envíos bloqueados, varias veces por send-timeout
+        long checkMillis = Math.max(100, sendTimeout.toMillis() / 4);
+        heartbeats.scheduleWithFixedDelay(this::disconnectStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+
+        this.dropped = Counter.builder("sse.events.dropped")
+                .description("Eventos descartados por buffer lleno (drop-oldest)")
+                .register(registry);
+        this.disconnected = Counter.builder("sse.subscribers.disconnected")
+                .description("Suscriptores desconectados por buffer lleno, envío lento o error de escritura")
+                .register(registry);
+        registry.gauge("sse.subscribers", subscribers, Set::size);
+    }
+
+    /**
+     * Registra un suscriptor; overflow es opcional (drop-oldest | disconnect)
+     */
+    public SseEmitter subscribe(String overflow) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, overflow != null ? parsePolicy(overflow) : defaultOverflow);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Primer mensaje inmediato para que el cliente sepa que está conectado
+        subscriber.offer(heartbeat);
+        return emitter;
+    }
+
+    /**
+     * Solo se ejecuta al confirmarse la transacción que publicó el evento
+     * (o de inmediato si no había transacción)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Set<ResponseBodyEmitter.DataWithMediaType> message;
+        try {
+            message = SseEmitter.event()
+                    .id(String.valueOf(eventIds.incrementAndGet()))
+                    .name(event.name())
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (RuntimeException e) {
+            return;
+        }
+
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    // Punto de extensión para las pruebas (emisor que simula un cliente lento)
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        subscribers.forEach(subscriber -> subscriber.expireIfStalled(now));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static OverflowPolicy parsePolicy(String value) {
+        return switch (value.trim().toLowerCase()) {
+            case "drop-oldest" -> OverflowPolicy.DROP_OLDEST;
+            case "disconnect" -> OverflowPolicy.DISCONNECT;
+            default -> throw new BadRequestException(
+                    "overflow desconocido: " + value + " (drop-oldest | disconnect)");
+        };
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final OverflowPolicy overflow;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Envío en curso: hilo y desde cuándo (lo revisa disconnectStalled)
+        private final Object sendLock = new Object();
+        private Thread sender;
+        private long sendStartedAt;
+        private volatile boolean expired;
+
+        private Subscriber(SseEmitter emitter, OverflowPolicy overflow) {
+            this.emitter = emitter;
+            this.overflow = overflow;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    if (overflow == OverflowPolicy.DISCONNECT) {
+                        close();
+                        return;
+                    }
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(message);
+            }
+            // Un solo drenado en curso por suscriptor
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!expired) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> next;
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    send(next);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emisor ya completado
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            if (expired) {
+                // send() ya no tiene el candado del emisor: ahora sí se puede completar
+                emitter.complete();
+                return;
+            }
+
+            // Un evento pudo llegar entre el último poll y liberar el flag
+            boolean pending;
+            synchronized (buffer) {
+                pending = !buffer.isEmpty();
+            }
+            if (pending && subscribers.contains(this) && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void send(Set<ResponseBodyEmitter.DataWithMediaType> message) throws IOException {
+            synchronized (sendLock) {
+                sender = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                emitter.send(message);
+            } finally {
+                synchronized (sendLock) {
+                    sender = null;
+                    // La interrupción de expireIfStalled no debe llegar al siguiente suscriptor
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        /**
+         * Desconecta al suscriptor si su envío actual superó send-timeout. No llama a
+         * emitter.complete(): esperaría al envío bloqueado; lo completa drain() al salir.
+         */
+        void expireIfStalled(long now) {
+            synchronized (sendLock) {
+                if (sender == null || now - sendStartedAt < sendTimeoutNanos) {
+                    return;
+                }
+                expired = true;
+                sender.interrupt();
+            }
+            detach();
+        }
+
+        private void close() {
+            if (detach()) {
+                emitter.complete();
+            }
+        }
+
+        private boolean detach() {
+            if (!subscribers.remove(this)) {
+                return false;
+            }
+            disconnected.increment();
+            synchronized (buffer) {
+                buffer.clear();
+            }
+            return true;
+        }
+    }
+}
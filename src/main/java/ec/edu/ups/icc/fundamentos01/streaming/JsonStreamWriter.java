@@ -0,0 +1,71 @@
+package ec.edu.ups.icc.fundamentos01.streaming;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Escribe un arreglo JSON elemento por elemento directamente al OutputStream.
+ *
+ * Cada entidad se mapea a su DTO, se serializa y se descarta; no se construye
+ * la lista completa en memoria. Cada FLUSH_EVERY elementos se vacía el
+ * generador y se limpia el contexto de persistencia para que la memoria
+ * usada no crezca con el tamaño del resultado.
+ *
+ * Debe llamarse dentro de una transacción (el Stream del repositorio la requiere).
+ */
+@Component
+public class JsonStreamWriter {
+
+    public static final int FLUSH_EVERY = 200;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public JsonStreamWriter(ObjectMapper objectMapper, EntityManager entityManager) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    public <E, D> void writeArray(Stream<E> source, Function<E, D> toDto, OutputStream out) {
+        try (Stream<E> entities = source;
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+
+            generator.writeStartArray();
+
+            int written = 0;
+            Iterator<E> it = entities.iterator();
+            while (it.hasNext()) {
+                generator.writePOJO(toDto.apply(it.next()));
+
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Escribe un objeto como una línea NDJSON y la envía de inmediato al cliente
+     */
+    public void writeLine(Object value, OutputStream out) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
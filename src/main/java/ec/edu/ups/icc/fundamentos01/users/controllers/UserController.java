@@ -1,8 +1,19 @@
 package ec.edu.ups.icc.fundamentos01.users.controllers;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ec.edu.ups.icc.fundamentos01.concurrency.IdempotencyStore;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSearchResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
 import ec.edu.ups.icc.fundamentos01.users.dtos.*;
 import ec.edu.ups.icc.fundamentos01.users.services.UserService;
 
@@ -11,9 +22,11 @@ import ec.edu.ups.icc.fundamentos01.users.services.UserService;
 public class UserController {
 
     private final UserService service;
+    private final IdempotencyStore idempotency;
 
-    public UserController(UserService service) {
+    public UserController(UserService service, IdempotencyStore idempotency) {
         this.service = service;
+        this.idempotency = idempotency;
     }
 
     @GetMapping
@@ -21,23 +34,60 @@ public class UserController {
         return service.findAll();
     }
 
+    // GET /api/users/page?after=&limit=&email=&name= - Paginación por cursor con búsqueda por prefijo
+    @GetMapping("/page")
+    public UserPageResponseDto findPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String name
+    ) {
+        return service.findPage(after, limit, email, name);
+    }
+
+    // GET /api/users?stream=true - Lista escrita en streaming
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = service::streamAll;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public UserResponseDto findOne(@PathVariable int id) {
         return service.findOne(id);
     }
 
+    // GET /api/users/{id}?include=products,categories - Usuario con sus productos en una consulta
+    @GetMapping(value = "/{id}", params = "include")
+    public UserDetailResponseDto findOneWithIncludes(@PathVariable Long id, @RequestParam String include) {
+        return service.findOneWithIncludes(id, include);
+    }
+
+    // Idempotency-Key (opcional): un reintento con la misma clave devuelve la respuesta original
     @PostMapping
-    public UserResponseDto create(@RequestBody CreateUserDto dto) {
-        return service.create(dto);
+    public CompletableFuture<ResponseEntity<UserResponseDto>> create(
+            @RequestBody CreateUserDto dto,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotency.executeAsync("POST /api/users", idempotencyKey, dto, () -> service.create(dto))
+                .thenApply(result -> result.toResponse(HttpStatus.OK));
+    }
+
+    // POST /api/users/login - Verifica credenciales (el hash se calcula fuera del hilo de Tomcat)
+    @PostMapping("/login")
+    public CompletableFuture<UserResponseDto> login(@RequestBody LoginDto dto) {
+        return service.login(dto);
     }
 
     @PutMapping("/{id}")
-    public UserResponseDto update(@PathVariable int id, @RequestBody UpdateUserDto dto) {
+    public CompletableFuture<UserResponseDto> update(@PathVariable int id, @RequestBody UpdateUserDto dto) {
         return service.update(id, dto);
     }
 
     @PatchMapping("/{id}")
-    public UserResponseDto partialUpdate(@PathVariable int id, @RequestBody PartialUpdateUserDto dto) {
+    public CompletableFuture<UserResponseDto> partialUpdate(@PathVariable int id, @RequestBody PartialUpdateUserDto dto) {
         return service.partialUpdate(id, dto);
     }
 
@@ -47,9 +97,30 @@ public class UserController {
     }
 
     // GET /api/users/{id}/products - Obtener productos de un usuario
+    // sort=price|name|createdAt, direction=asc|desc y limit=N (top-N) se aplican en SQL
     @GetMapping("/{id}/products")
-    public List<ProductResponseDto> getProductsByUserId(@PathVariable Long id) {
-        return service.getProductsByUserId(id);
+    public List<ProductResponseDto> getProductsByUserId(
+            @PathVariable Long id,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return service.getProductsByUserId(id, ProductSort.parse(sort, direction, limit));
+    }
+
+    // GET /api/users/{id}/products/stats - min/avg/max/percentiles de precio calculados en SQL
+    @GetMapping("/{id}/products/stats")
+    public PriceStatsDto getProductPriceStats(@PathVariable Long id) {
+        return service.getProductPriceStats(id);
+    }
+
+    // DELETE /api/users/{id}/products - Borrado masivo; responde el avance por bloque (NDJSON)
+    @DeleteMapping("/{id}/products")
+    public ResponseEntity<StreamingResponseBody> deleteProducts(@PathVariable Long id) {
+        StreamingResponseBody body = out -> service.deleteProducts(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // GET /api/users/{id}/products-v2 - Obtener productos con filtros opcionales
@@ -59,8 +130,79 @@ public class UserController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
-            @RequestParam(required = false) Long categoryId
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return service.getProductsByUserIdWithFilters(
+                id, name, minPrice, maxPrice, categoryId, ProductSort.parse(sort, direction, limit));
+    }
+
+    // GET /api/users/{id}/products-v2?facets=true&page=0&size=20 - Página con conteos por
+    // categoría y por rango de precio (priceBuckets=50,100 opcional) del filtro actual;
+    // sort/direction ordenan la página (el tamaño lo da size)
+    @GetMapping(value = "/{id}/products-v2", params = "facets=true")
+    public ProductSearchResponseDto searchProductsWithFacets(
+            @PathVariable Long id,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) List<Double> priceBuckets,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction
+    ) {
+        return service.searchProducts(
+                ProductFilter.byOwnerWithFilters(id, name, minPrice, maxPrice, categoryId),
+                ProductSort.parse(sort, direction, null),
+                page,
+                size,
+                priceBuckets
+        );
+    }
+
+    // ============== CAMPOS PARCIALES (?fields=) ==============
+
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> findAllFields(@RequestParam String fields) {
+        return service.findAllFields(fields);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public Map<String, Object> findOneFields(@PathVariable int id, @RequestParam String fields) {
+        return service.findOneFields(id, fields);
+    }
+
+    @GetMapping(value = "/{id}/products", params = "fields")
+    public List<Map<String, Object>> getProductsByUserIdFields(
+            @PathVariable Long id,
+            @RequestParam String fields,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return service.getProductsByUserIdFields(ProductFilter.byOwner(id), ProductSort.parse(sort, direction, limit), fields);
+    }
+
+    @GetMapping(value = "/{id}/products-v2", params = "fields")
+    public List<Map<String, Object>> getProductsByUserIdWithFiltersFields(
+            @PathVariable Long id,
+            @RequestParam String fields,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit
     ) {
-        return service.getProductsByUserIdWithFilters(id, name, minPrice, maxPrice, categoryId);
+        return service.getProductsByUserIdFields(
+                ProductFilter.byOwnerWithFilters(id, name, minPrice, maxPrice, categoryId),
+                ProductSort.parse(sort, direction, limit),
+                fields
+        );
     }
 }
\ No newline at end of file
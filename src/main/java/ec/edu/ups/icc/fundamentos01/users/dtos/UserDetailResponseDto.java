@@ -0,0 +1,38 @@
+package ec.edu.ups.icc.fundamentos01.users.dtos;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+
+import java.util.List;
+
+/**
+ * Usuario con sus productos embebidos (GET /api/users/{id}?include=products[,categories])
+ */
+public class UserDetailResponseDto {
+
+    // Valores aceptados por ?include=
+    public static final List<String> INCLUDES = List.of("products", "categories");
+
+    private Long id;
+    private String name;
+    private String email;
+    private List<ProductResponseDto> products;
+
+    public UserDetailResponseDto(Long id, String name, String email, List<ProductResponseDto> products) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.products = products;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public List<ProductResponseDto> getProducts() { return products; }
+    public void setProducts(List<ProductResponseDto> products) { this.products = products; }
+}
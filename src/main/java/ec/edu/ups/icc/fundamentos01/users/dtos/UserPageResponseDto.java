@@ -0,0 +1,13 @@
+package ec.edu.ups.icc.fundamentos01.users.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/users/page (paginación por cursor).
+ * nextCursor es el id a enviar como ?after= para la siguiente página; null si no hay más.
+ */
+public class UserPageResponseDto {
+
+    public List<UserResponseDto> users;
+    public Long nextCursor;
+}
@@ -1,6 +1,12 @@
 package ec.edu.ups.icc.fundamentos01.users.dtos;
 
+import java.util.List;
+
 public class UserResponseDto {
+
+    // Campos que se pueden pedir con ?fields=
+    public static final List<String> FIELDS = List.of("id", "name", "email");
+
     private Long id;
     private String name;
     private String email;
@@ -8,7 +8,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(
+        name = "users",
+        // email ya tiene índice por su restricción UNIQUE; name se indexa para la búsqueda por prefijo
+        indexes = @Index(name = "idx_users_name", columnList = "name")
+)
 public class UserEntity extends BaseModel {
 
     @Column(nullable = false, length = 150)
@@ -17,6 +21,7 @@ public class UserEntity extends BaseModel {
     @Column(nullable = false, unique = true, length = 150)
     private String email;
 
+    // Hash BCrypt (ver PasswordHasher); filas antiguas en claro se actualizan al iniciar sesión
     @Column(nullable = false)
     private String password;
 
@@ -72,6 +72,12 @@ public class User {
         return entity;
     }
 
+    // Reemplaza la contraseña en claro (ya validada) por su hash antes de persistir
+    public User withPasswordHash(String passwordHash) {
+        this.password = passwordHash;
+        return this;
+    }
+
     // 4. Modelo -> Respuesta JSON
     public UserResponseDto toResponseDto() {
         return new UserResponseDto(this.id, this.name, this.email);
@@ -1,11 +1,62 @@
 package ec.edu.ups.icc.fundamentos01.users.repositories;
 
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional; // <--- Importante
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserRepositoryCustom {
     Optional<UserEntity> findByEmail(String email);
+
+    // Solo consulta el índice único de email, sin cargar la entidad
+    boolean existsByEmail(String email);
+
+    // Varios usuarios por email en una consulta (importación CSV)
+    List<UserEntity> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Reemplaza la contraseña solo si no cambió desde que se leyó (rehash al iniciar sesión)
+     */
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(
+            @Param("id") Long id,
+            @Param("oldPassword") String oldPassword,
+            @Param("newPassword") String newPassword
+    );
+
+    /**
+     * Recorre todos los usuarios con un cursor (usar dentro de una transacción)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT u FROM UserEntity u")
+    Stream<UserEntity> streamAll();
+
+    /**
+     * Usuario con sus productos en una sola consulta (LEFT JOIN: también sin productos)
+     */
+    @Query("SELECT u FROM UserEntity u LEFT JOIN FETCH u.products p WHERE u.id = :id ORDER BY p.id")
+    Optional<UserEntity> findWithProductsById(@Param("id") Long id);
+
+    /**
+     * Igual que findWithProductsById, trayendo además las categorías de cada producto
+     */
+    @Query("""
+        SELECT u FROM UserEntity u
+        LEFT JOIN FETCH u.products p
+        LEFT JOIN FETCH p.categories
+        WHERE u.id = :id
+        ORDER BY p.id
+        """)
+    Optional<UserEntity> findWithProductsAndCategoriesById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ec.edu.ups.icc.fundamentos01.users.repositories;
+
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
+import ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de usuarios con proyección dinámica (sparse fieldsets) y paginación por cursor
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Devuelve solo las columnas pedidas; si id es null devuelve todos los usuarios
+     */
+    List<Map<String, Object>> findFields(FieldSelection fields, Long id);
+
+    /**
+     * Hasta limit usuarios con id > afterId, ordenados por id (keyset pagination).
+     * emailPrefix y namePrefix son opcionales y filtran por prefijo (LIKE 'x%').
+     */
+    List<UserResponseDto> findPage(Long afterId, String emailPrefix, String namePrefix, int limit);
+}
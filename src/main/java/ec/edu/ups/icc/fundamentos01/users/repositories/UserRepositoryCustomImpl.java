@@ -0,0 +1,72 @@
+package ec.edu.ups.icc.fundamentos01.users.repositories;
+
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
+import ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public UserRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(FieldSelection fields, Long id) {
+        // Los nombres de campo coinciden con los atributos de UserEntity (ya validados)
+        String columns = String.join(", ", fields.fields().stream().map(field -> "u." + field).toList());
+
+        String jpql = "SELECT " + columns + " FROM UserEntity u"
+                + (id != null ? " WHERE u.id = :id" : "")
+                + " ORDER BY u.id";
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (id != null) {
+            query.setParameter("id", id);
+        }
+
+        return query.getResultList().stream()
+                .map(row -> {
+                    Map<String, Object> user = new LinkedHashMap<>();
+                    for (int i = 0; i < fields.fields().size(); i++) {
+                        user.put(fields.fields().get(i), row.get(i));
+                    }
+                    return user;
+                })
+                .toList();
+    }
+
+    @Override
+    public List<UserResponseDto> findPage(Long afterId, String emailPrefix, String namePrefix, int limit) {
+        // Proyección directa al DTO: no se hidratan entidades
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto(u.id, u.name, u.email)"
+                        + " FROM UserEntity u WHERE 1 = 1");
+
+        if (afterId != null) jpql.append(" AND u.id > :afterId");
+        // Prefijo fijo (sin % inicial) para que se usen los índices de email y name
+        if (emailPrefix != null) jpql.append(" AND u.email LIKE :emailPrefix ESCAPE '\\'");
+        if (namePrefix != null) jpql.append(" AND u.name LIKE :namePrefix ESCAPE '\\'");
+        jpql.append(" ORDER BY u.id");
+
+        TypedQuery<UserResponseDto> query = entityManager.createQuery(jpql.toString(), UserResponseDto.class);
+        if (afterId != null) query.setParameter("afterId", afterId);
+        if (emailPrefix != null) query.setParameter("emailPrefix", likePrefix(emailPrefix));
+        if (namePrefix != null) query.setParameter("namePrefix", likePrefix(namePrefix));
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -1,19 +1,41 @@
 package ec.edu.ups.icc.fundamentos01.users.services;
 
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSearchResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
 import ec.edu.ups.icc.fundamentos01.users.dtos.*;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
     List<UserResponseDto> findAll();
+
+    // Listado paginado por cursor con búsqueda opcional por prefijo de email/nombre
+    UserPageResponseDto findPage(Long after, int limit, String email, String name);
     UserResponseDto findOne(int id);
-    UserResponseDto create(CreateUserDto dto);
-    UserResponseDto update(int id, UpdateUserDto dto);
-    UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto);
+
+    // Usuario con sus productos en una sola consulta (?include=products[,categories])
+    UserDetailResponseDto findOneWithIncludes(Long id, String include);
+
+    // El hash de la contraseña se calcula en el pool de PasswordHasher; el future termina al guardar
+    CompletableFuture<UserResponseDto> create(CreateUserDto dto);
+    CompletableFuture<UserResponseDto> update(int id, UpdateUserDto dto);
+    CompletableFuture<UserResponseDto> partialUpdate(int id, PartialUpdateUserDto dto);
+
+    // Verifica credenciales; recalcula el hash si está en claro o con un costo menor al actual
+    CompletableFuture<UserResponseDto> login(LoginDto dto);
+
     void delete(int id);
 
-    // Obtener productos de un usuario específico
-    List<ProductResponseDto> getProductsByUserId(Long userId);
+    // Obtener productos de un usuario específico, con orden y top-N opcionales
+    List<ProductResponseDto> getProductsByUserId(Long userId, ProductSort sort);
+
+    // Estadísticas de precio de los productos del usuario (agregados SQL)
+    PriceStatsDto getProductPriceStats(Long userId);
 
     // Obtener productos de un usuario con filtros opcionales (v2)
     List<ProductResponseDto> getProductsByUserIdWithFilters(
@@ -21,6 +43,21 @@ public interface UserService {
             String name,
             Double minPrice,
             Double maxPrice,
-            Long categoryId
+            Long categoryId,
+            ProductSort sort
     );
+
+    // Productos del usuario con filtros, paginados y con facetas (categorías y rangos de precio)
+    ProductSearchResponseDto searchProducts(ProductFilter filter, ProductSort sort, int page, int size, List<Double> priceEdges);
+
+    // Escritura en streaming de todos los usuarios
+    void streamAll(OutputStream out);
+
+    // Borra todos los productos del usuario por bloques, escribiendo el avance como NDJSON
+    void deleteProducts(Long userId, OutputStream out);
+
+    // Proyección dinámica (?fields=)
+    List<Map<String, Object>> findAllFields(String fields);
+    Map<String, Object> findOneFields(int id, String fields);
+    List<Map<String, Object>> getProductsByUserIdFields(ProductFilter filter, ProductSort sort, String fields);
 }
\ No newline at end of file
@@ -1,29 +1,80 @@
 package ec.edu.ups.icc.fundamentos01.users.services;
 
+import ec.edu.ups.icc.fundamentos01.concurrency.SingleFlight;
+import ec.edu.ups.icc.fundamentos01.config.datasource.DataSourceContextHolder;
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.UnauthorizedException;
+import ec.edu.ups.icc.fundamentos01.fields.FieldSelection;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PriceStatsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFilter;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSearchResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSort;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
 import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductServiceImpl;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductViewProjector;
+import ec.edu.ups.icc.fundamentos01.security.PasswordHasher;
+import ec.edu.ups.icc.fundamentos01.streaming.JsonStreamWriter;
 import ec.edu.ups.icc.fundamentos01.users.dtos.*;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.models.User;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepository userRepo;
     private final ProductService productService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final PasswordHasher passwordHasher;
+    private final ProductChangeRepository productChangeRepo;
+    private final ProductViewProjector productViews;
+    // Las escrituras terminan en el hilo del hasher, fuera del @Transactional del llamador (ver inTransaction)
+    private final TransactionTemplate transactionTemplate;
+    private final SingleFlight singleFlight;
 
-    public UserServiceImpl(UserRepository userRepo, ProductService productService) {
+    public UserServiceImpl(
+            UserRepository userRepo,
+            ProductService productService,
+            JsonStreamWriter jsonStreamWriter,
+            PasswordHasher passwordHasher,
+            ProductChangeRepository productChangeRepo,
+            ProductViewProjector productViews,
+            PlatformTransactionManager transactionManager,
+            SingleFlight singleFlight) {
         this.userRepo = userRepo;
         this.productService = productService;
+        this.jsonStreamWriter = jsonStreamWriter;
+        this.passwordHasher = passwordHasher;
+        this.productChangeRepo = productChangeRepo;
+        this.productViews = productViews;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.singleFlight = singleFlight;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserResponseDto> findAll() {
         return userRepo.findAll()
                 .stream()
@@ -33,6 +84,23 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public UserPageResponseDto findPage(Long after, int limit, String email, String name) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+
+        // Se pide una fila extra para saber si existe una página siguiente
+        List<UserResponseDto> rows = userRepo.findPage(after, blankToNull(email), blankToNull(name), limit + 1);
+
+        UserPageResponseDto page = new UserPageResponseDto();
+        page.users = rows.size() > limit ? rows.subList(0, limit) : rows;
+        page.nextCursor = rows.size() > limit ? page.users.get(limit - 1).getId() : null;
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserResponseDto findOne(int id) {
         return userRepo.findById((long) id)
                 .map(User::fromEntity)
@@ -41,51 +109,140 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserResponseDto create(CreateUserDto dto) {
-        // 1. VALIDACIÓN PREVIA : Verificar duplicados
-        if (userRepo.findByEmail(dto.getEmail()).isPresent()) {
+    @Transactional(readOnly = true)
+    public UserDetailResponseDto findOneWithIncludes(Long id, String include) {
+        Set<String> includes = parseIncludes(include);
+
+        if (!includes.contains("products")) {
+            throw new BadRequestException("include=categories requiere include=products");
+        }
+
+        boolean withCategories = includes.contains("categories");
+        UserEntity user = (withCategories
+                ? userRepo.findWithProductsAndCategoriesById(id)
+                : userRepo.findWithProductsById(id))
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id));
+
+        return toDetailDto(user, withCategories);
+    }
+
+    @Override
+    public CompletableFuture<UserResponseDto> create(CreateUserDto dto) {
+        // 1. VALIDACIÓN PREVIA : Verificar duplicados (antes de gastar CPU en el hash)
+        if (userRepo.existsByEmail(dto.getEmail())) {
             throw new ConflictException("El email " + dto.getEmail() + " ya está registrado");
         }
 
-        // 2. CREACIÓN (Estilo Funcional): Guardar y mapear
-        return Optional.of(dto)
-                .map(User::fromDto)
-                .map(User::toEntity)
-                .map(userRepo::save)
-                .map(User::fromEntity)
-                .map(User::toResponseDto)
-                .orElseThrow(() -> new RuntimeException("Error interno al crear el usuario"));
+        // El modelo valida la contraseña en claro; el hash se calcula fuera del hilo de Tomcat
+        User user = User.fromDto(dto);
+        DataSourceContextHolder.Context context = DataSourceContextHolder.capture();
+
+        // 2. CREACIÓN (Estilo Funcional): Guardar y mapear, con el hash ya calculado
+        return passwordHasher.hash(user.getPassword())
+                .thenApply(hash -> inTransaction(context, status -> Optional.of(user.withPasswordHash(hash))
+                        .map(User::toEntity)
+                        .map(this::saveUnique)
+                        .map(User::fromEntity)
+                        .map(User::toResponseDto)
+                        .orElseThrow(() -> new RuntimeException("Error interno al crear el usuario"))));
     }
 
     @Override
-    public UserResponseDto update(int id, UpdateUserDto dto) {
-        return userRepo.findById((long) id)
-                .map(entity -> {
-                    entity.setName(dto.getName());
-                    entity.setEmail(dto.getEmail());
-                    entity.setPassword(dto.getPassword());
-                    return userRepo.save(entity);
-                })
-                .map(User::fromEntity)
-                .map(User::toResponseDto)
-                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id));
+    public CompletableFuture<UserResponseDto> update(int id, UpdateUserDto dto) {
+        requireExists(id);
+        DataSourceContextHolder.Context context = DataSourceContextHolder.capture();
+
+        return passwordHasher.hash(dto.getPassword())
+                .thenApply(hash -> inTransaction(context, status -> userRepo.findById((long) id)
+                        .map(entity -> {
+                            entity.setName(dto.getName());
+                            entity.setEmail(dto.getEmail());
+                            entity.setPassword(hash);
+                            // Nombre/email del dueño van embebidos en sus productos (feed de cambios y product_view)
+                            productChangeRepo.recordUpsertsByOwner(entity.getId(), LocalDateTime.now());
+                            UserEntity saved = saveUnique(entity);
+                            productViews.refreshOwner(saved);
+                            return saved;
+                        })
+                        .map(User::fromEntity)
+                        .map(User::toResponseDto)
+                        .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id))))
+                .thenApply(this::forgetProductReads);
     }
 
     @Override
-    public UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto) {
-        return userRepo.findById((long) id)
+    public CompletableFuture<UserResponseDto> partialUpdate(int id, PartialUpdateUserDto dto) {
+        requireExists(id);
+        DataSourceContextHolder.Context context = DataSourceContextHolder.capture();
+
+        // Solo se calcula el hash si viene una nueva contraseña
+        CompletableFuture<String> hash = dto.getPassword() != null
+                ? passwordHasher.hash(dto.getPassword())
+                : CompletableFuture.completedFuture(null);
+
+        return hash.thenApply(newHash -> inTransaction(context, status -> userRepo.findById((long) id)
                 .map(entity -> {
                     if (dto.getName() != null) entity.setName(dto.getName());
                     if (dto.getEmail() != null) entity.setEmail(dto.getEmail());
-                    if (dto.getPassword() != null) entity.setPassword(dto.getPassword());
-                    return userRepo.save(entity);
+                    if (newHash != null) entity.setPassword(newHash);
+                    boolean ownerChanged = dto.getName() != null || dto.getEmail() != null;
+                    if (ownerChanged) {
+                        productChangeRepo.recordUpsertsByOwner(entity.getId(), LocalDateTime.now());
+                    }
+                    UserEntity saved = saveUnique(entity);
+                    if (ownerChanged) {
+                        productViews.refreshOwner(saved);
+                    }
+                    return saved;
                 })
                 .map(User::fromEntity)
                 .map(User::toResponseDto)
-                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id));
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id))))
+                .thenApply(this::forgetProductReads);
+    }
+
+    /**
+     * El dueño (nombre/email) va embebido en cada producto: tras el commit, las
+     * lecturas de productos en curso ya no aceptan llamadores nuevos
+     */
+    private UserResponseDto forgetProductReads(UserResponseDto updated) {
+        singleFlight.forgetAll(ProductServiceImpl.FLIGHT_PREFIX);
+        return updated;
+    }
+
+    @Override
+    public CompletableFuture<UserResponseDto> login(LoginDto dto) {
+        UserEntity user = userRepo.findByEmail(dto.getEmail()).orElse(null);
+        if (user == null) {
+            // Mismo costo que una contraseña incorrecta: el tiempo no revela qué emails existen
+            return passwordHasher.matchesNothing(dto.getPassword())
+                    .thenApply(valid -> {
+                        throw new UnauthorizedException("Credenciales inválidas");
+                    });
+        }
+        String stored = user.getPassword();
+        DataSourceContextHolder.Context context = DataSourceContextHolder.capture();
+
+        return passwordHasher.matches(dto.getPassword(), stored)
+                .thenCompose(valid -> {
+                    if (!valid) {
+                        throw new UnauthorizedException("Credenciales inválidas");
+                    }
+                    if (!passwordHasher.needsRehash(stored)) {
+                        return CompletableFuture.completedFuture(user);
+                    }
+                    // Contraseña en claro o con costo menor al configurado: se actualiza al iniciar sesión
+                    return passwordHasher.hash(dto.getPassword())
+                            .thenApply(hash -> inTransaction(context, status -> {
+                                userRepo.updatePasswordIfUnchanged(user.getId(), stored, hash);
+                                return user;
+                            }));
+                })
+                .thenApply(entity -> User.fromEntity(entity).toResponseDto());
     }
 
     @Override
+    @Transactional
     public void delete(int id) {
         if (!userRepo.existsById((long) id)) {
             throw new NotFoundException("No se puede eliminar. Usuario no encontrado con ID: " + id);
@@ -94,30 +251,137 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<ProductResponseDto> getProductsByUserId(Long userId) {
-        // Verificar que el usuario existe
-        if (!userRepo.existsById(userId)) {
-            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
-        }
+    public List<ProductResponseDto> getProductsByUserId(Long userId, ProductSort sort) {
+        // Desde product_view por owner_id (sin JOINs); ProductService valida que el usuario exista
+        return productService.findByUserId(userId, sort);
+    }
 
-        // Delegar al ProductService que ya tiene la lógica de conversión
-        return productService.findByUserId(userId);
+    @Override
+    public PriceStatsDto getProductPriceStats(Long userId) {
+        // ProductService valida que el usuario exista
+        return productService.priceStatsByOwner(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> getProductsByUserIdWithFilters(
             Long userId,
             String name,
             Double minPrice,
             Double maxPrice,
-            Long categoryId
+            Long categoryId,
+            ProductSort sort
     ) {
-        // Verificar que el usuario existe
-        if (!userRepo.existsById(userId)) {
-            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        // Delegar al ProductService con filtros (consulta a nivel de BD); ya valida que el usuario exista
+        return productService.findByUserIdWithFilters(userId, name, minPrice, maxPrice, categoryId, sort);
+    }
+
+    @Override
+    public ProductSearchResponseDto searchProducts(ProductFilter filter, ProductSort sort, int page, int size, List<Double> priceEdges) {
+        // ProductService valida que el usuario (filter.ownerId) exista
+        return productService.search(filter, sort, page, size, priceEdges);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(OutputStream out) {
+        jsonStreamWriter.writeArray(
+                userRepo.streamAll(),
+                entity -> User.fromEntity(entity).toResponseDto(),
+                out
+        );
+    }
+
+    @Override
+    public void deleteProducts(Long userId, OutputStream out) {
+        // Cada bloque se confirma en su propia transacción dentro de ProductService
+        productService.deleteByOwner(userId, progress -> jsonStreamWriter.writeLine(progress, out));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllFields(String fields) {
+        return userRepo.findFields(FieldSelection.parse(fields, UserResponseDto.FIELDS), null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> findOneFields(int id, String fields) {
+        return userRepo.findFields(FieldSelection.parse(fields, UserResponseDto.FIELDS), (long) id)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductsByUserIdFields(ProductFilter filter, ProductSort sort, String fields) {
+        // ProductService ya valida que el usuario (filter.ownerId) exista
+        return productService.findFields(filter, sort, fields);
+    }
+
+    /**
+     * Escritura que termina en el hilo del hasher: con el estado de enrutamiento de
+     * la petición (read-your-writes registra la escritura para su sesión) y sin dejar
+     * ThreadLocals en el pool
+     */
+    private <T> T inTransaction(DataSourceContextHolder.Context context, TransactionCallback<T> work) {
+        return context.call(() -> transactionTemplate.execute(work));
+    }
+
+    private void requireExists(int id) {
+        // Evita calcular un hash para un usuario que no existe
+        if (!userRepo.existsById((long) id)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + id);
+        }
+    }
+
+    private UserEntity saveUnique(UserEntity entity) {
+        try {
+            return userRepo.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición registró el mismo email mientras se calculaba el hash
+            throw new ConflictException("El email " + entity.getEmail() + " ya está registrado");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private Set<String> parseIncludes(String raw) {
+        Set<String> includes = new LinkedHashSet<>();
+        for (String value : raw.split(",")) {
+            if (!value.isBlank()) {
+                includes.add(value.trim());
+            }
+        }
+
+        for (String value : includes) {
+            if (!UserDetailResponseDto.INCLUDES.contains(value)) {
+                throw new BadRequestException(
+                        "Valor de include desconocido: " + value + ". Valores permitidos: "
+                                + String.join(",", UserDetailResponseDto.INCLUDES)
+                );
+            }
         }
+        return includes;
+    }
+
+    /**
+     * El dueño de cada producto es el propio usuario: se arma su resumen una vez
+     * en lugar de navegar product.getOwner() por cada fila
+     */
+    private UserDetailResponseDto toDetailDto(UserEntity user, boolean withCategories) {
+        ProductResponseDto.UserSummaryDto owner = ProductMapper.toUserSummary(user);
+
+        // distinct(): el JOIN FETCH anidado de categorías repite el producto en la bolsa
+        List<ProductResponseDto> products = user.getProducts()
+                .stream()
+                .distinct()
+                .map(product -> ProductMapper.toResponseDto(product, owner, withCategories))
+                .toList();
 
-        // Delegar al ProductService con filtros (consulta a nivel de BD)
-        return productService.findByUserIdWithFilters(userId, name, minPrice, maxPrice, categoryId);
+        return new UserDetailResponseDto(user.getId(), user.getName(), user.getEmail(), products);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package ec.edu.ups.icc.fundamentos01.concurrency;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    private static final String SCOPE = "POST /api/products";
+
+    private final IdempotencyStore store = new IdempotencyStore(
+            JsonMapper.builder().build(), new SimpleMeterRegistry(), Duration.ofHours(1), 100);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void repeatedKeyReplaysTheFirstResult() {
+        IdempotencyStore.Result<Integer> first = store.execute(SCOPE, "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+        IdempotencyStore.Result<Integer> second = store.execute(SCOPE, "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.value()).isEqualTo(first.value());
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsAConflict() {
+        store.execute(SCOPE, "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+
+        assertThatThrownBy(() -> store.execute(SCOPE, "k1", Map.of("name", "Teclado"), executions::incrementAndGet))
+                .isInstanceOf(ConflictException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void sameKeyInAnotherScopeIsIndependent() {
+        store.execute(SCOPE, "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+        IdempotencyStore.Result<Integer> other = store.execute("POST /api/users", "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+
+        assertThat(other.replayed()).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void failedExecutionReleasesTheKey() {
+        assertThatThrownBy(() -> store.execute(SCOPE, "k1", Map.of("name", "Mouse"), () -> {
+            throw new IllegalStateException("falla");
+        })).isInstanceOf(IllegalStateException.class);
+
+        IdempotencyStore.Result<Integer> retry = store.execute(SCOPE, "k1", Map.of("name", "Mouse"), executions::incrementAndGet);
+        assertThat(retry.replayed()).isFalse();
+        assertThat(executions).hasValue(1);
+    }
+}
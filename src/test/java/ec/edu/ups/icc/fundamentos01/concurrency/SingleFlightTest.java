@@ -0,0 +1,86 @@
+package ec.edu.ups.icc.fundamentos01.concurrency;
+
+import ec.edu.ups.icc.fundamentos01.config.datasource.DataSourceContextHolder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(registry);
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        DataSourceContextHolder.clear();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", this::slowRead));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", this::slowRead));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void callersAfterForgetStartANewExecution() throws Exception {
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", this::slowRead));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Una escritura confirmó: la lectura en curso puede ser anterior al commit
+        singleFlight.forget("k");
+        assertThat(singleFlight.execute("k", executions::incrementAndGet)).isEqualTo(2);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void primaryForcedCallersDoNotJoinOtherExecutions() throws Exception {
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", this::slowRead));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        DataSourceContextHolder.forcePrimary();
+        assertThat(singleFlight.execute("k", executions::incrementAndGet)).isEqualTo(2);
+
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    private int slowRead() {
+        int execution = executions.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return execution;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("singleflight.calls").tag("result", "coalesced").counter().count() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
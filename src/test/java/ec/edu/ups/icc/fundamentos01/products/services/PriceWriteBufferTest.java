@@ -0,0 +1,181 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class PriceWriteBufferTest {
+
+    private static final long ID = 1L;
+
+    private final ProductViewProjector productViews = mock(ProductViewProjector.class);
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactions;
+    private PriceWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, price DOUBLE, updated_at TIMESTAMP(6))");
+        jdbc.update("INSERT INTO products VALUES (?, ?, NULL)", ID, 10.0);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactions = new TransactionTemplate(transactionManager);
+        // El vaciado automático no interviene: cada prueba llama a flush
+        buffer = new PriceWriteBuffer(jdbc, transactionManager, productViews, mock(ProductChangeRepository.class),
+                event -> { }, new SimpleMeterRegistry(), Duration.ofHours(1), 10_000, false);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void flushWritesPendingPrice() {
+        buffer.tryBuffer(ID, put(25.0), () -> current(10.0));
+
+        assertThat(buffer.flush()).isEqualTo(1);
+        assertThat(storedPrice()).isEqualTo(25.0);
+        assertThat(buffer.find(ID)).isNull();
+    }
+
+    @Test
+    void flushDoesNotOverwriteALaterWrite() {
+        buffer.tryBuffer(ID, put(25.0), () -> current(10.0));
+        // PUT completo confirmado después del PUT diferido
+        jdbc.update("UPDATE products SET price = ?, updated_at = ? WHERE id = ?",
+                40.0, LocalDateTime.now().plusSeconds(1), ID);
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(storedPrice()).isEqualTo(40.0);
+    }
+
+    @Test
+    void flushOfOneIdWaitsForTheFlushInProgress() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            return null;
+        }).when(productViews).refreshPrices(any());
+
+        buffer.tryBuffer(ID, put(25.0), () -> current(10.0));
+        CompletableFuture<Integer> background = CompletableFuture.supplyAsync(buffer::flush);
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Lo que haría un PUT concurrente antes de leer la fila
+        CompletableFuture<Void> put = CompletableFuture.runAsync(() -> buffer.flush(ID));
+        Thread.sleep(200);
+        assertThat(put).isNotDone();
+        // El lote en curso sigue visible para las lecturas
+        assertThat(buffer.find(ID).price).isEqualTo(25.0);
+
+        release.countDown();
+        put.get(5, TimeUnit.SECONDS);
+        assertThat(background.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(storedPrice()).isEqualTo(25.0);
+    }
+
+    @Test
+    void discardAfterCommitKeepsPendingPriceOnRollback() {
+        buffer.tryBuffer(ID, put(25.0), () -> current(10.0));
+
+        transactions.executeWithoutResult(status -> {
+            buffer.discardAfterCommit(ID);
+            status.setRollbackOnly();
+        });
+        assertThat(buffer.find(ID).price).isEqualTo(25.0);
+
+        transactions.executeWithoutResult(status -> buffer.discardAfterCommit(ID));
+        assertThat(buffer.find(ID)).isNull();
+    }
+
+    @Test
+    void priceBufferedBeforeAFullPutCommitsIsKept() throws Exception {
+        CountDownLatch registered = new CountDownLatch(1);
+        CountDownLatch buffered = new CountDownLatch(1);
+
+        // PUT completo: guarda lo pendiente, escribe la fila y registra el descarte antes del commit
+        CompletableFuture<Void> fullPut = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            buffer.flush(ID);
+            jdbc.update("UPDATE products SET price = ?, updated_at = ? WHERE id = ?", 30.0, LocalDateTime.now(), ID);
+            buffer.discardAfterCommit(ID);
+            registered.countDown();
+            try {
+                buffered.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(registered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // PUT de solo precio respondido mientras el otro aún no confirma
+        buffer.tryBuffer(ID, put(25.0), () -> current(30.0));
+        buffered.countDown();
+        fullPut.get(5, TimeUnit.SECONDS);
+
+        assertThat(buffer.find(ID).price).isEqualTo(25.0);
+        assertThat(buffer.flush()).isEqualTo(1);
+        assertThat(storedPrice()).isEqualTo(25.0);
+    }
+
+    @Test
+    void putThatChangesOtherFieldsIsNotBuffered() {
+        UpdateProductDto dto = put(25.0);
+        dto.name = "Otro nombre";
+
+        assertThat(buffer.tryBuffer(ID, dto, () -> current(10.0))).isNull();
+        assertThat(buffer.find(ID)).isNull();
+    }
+
+    private Double storedPrice() {
+        return jdbc.queryForObject("SELECT price FROM products WHERE id = ?", Double.class, ID);
+    }
+
+    private static UpdateProductDto put(double price) {
+        UpdateProductDto dto = new UpdateProductDto();
+        dto.name = "Mouse";
+        dto.price = price;
+        dto.categoryIds = Set.of(1L);
+        return dto;
+    }
+
+    private static ProductResponseDto current(double price) {
+        ProductResponseDto.CategorySummaryDto category = new ProductResponseDto.CategorySummaryDto();
+        category.id = 1L;
+
+        ProductResponseDto product = new ProductResponseDto();
+        product.id = ID;
+        product.name = "Mouse";
+        product.price = price;
+        product.categories = List.of(category);
+        return product;
+    }
+}
@@ -0,0 +1,110 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkDeleteProgressDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductBulkDeleteTest {
+
+    // El servicio borra en bloques de 500: 1201 productos son tres bloques (500, 500, 201)
+    private static final int PRODUCTS = 1201;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private String suffix;
+    private UserEntity owner;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString();
+        owner = new UserEntity();
+        owner.setName("Delete " + suffix);
+        owner.setEmail("delete-" + suffix + "@email.com");
+        owner.setPassword("password123");
+        userRepository.save(owner);
+    }
+
+    @Test
+    void deleteByOwnerRunsOneChunkAfterAnother() {
+        saveProducts(PRODUCTS, Set.of());
+        List<BulkDeleteProgressDto> progress = new ArrayList<>();
+
+        BulkDeleteProgressDto result = productService.deleteByOwner(owner.getId(), p -> progress.add(copy(p)));
+
+        assertThat(result.done).isTrue();
+        assertThat(result.chunk).isEqualTo(3);
+        assertThat(result.totalDeleted).isEqualTo(PRODUCTS);
+        assertThat(progress).extracting(p -> p.deletedInChunk).containsExactly(500, 500, 201, 0);
+        assertThat(progress).extracting(p -> p.totalDeleted).containsExactly(500L, 1000L, 1201L, 1201L);
+        assertThat(progress).extracting(p -> p.done).containsExactly(false, false, false, true);
+        assertThat(productRepository.findIdsByOwnerId(owner.getId(), Limit.unlimited())).isEmpty();
+    }
+
+    @Test
+    void deleteByCategoryOnlyRemovesProductsInThatCategory() {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Delete " + suffix);
+        category.setDescription("Categoría de prueba");
+        categoryRepository.save(category);
+        saveProducts(501, Set.of(category));
+        Long survivor = saveProducts(1, Set.of()).get(0);
+
+        BulkDeleteProgressDto result = productService.deleteByCategory(category.getId(), p -> { });
+
+        assertThat(result.chunk).isEqualTo(2);
+        assertThat(result.totalDeleted).isEqualTo(501);
+        assertThat(productRepository.findIdsByCategoryId(category.getId(), Limit.unlimited())).isEmpty();
+        assertThat(productRepository.findIdsByOwnerId(owner.getId(), Limit.unlimited())).containsExactly(survivor);
+    }
+
+    private List<Long> saveProducts(int count, Set<CategoryEntity> categories) {
+        List<ProductEntity> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName("Delete " + suffix + " " + UUID.randomUUID());
+            product.setDescription("Producto de prueba");
+            product.setPrice(10.0);
+            product.setOwner(owner);
+            categories.forEach(product::addCategory);
+            products.add(product);
+        }
+        return productRepository.saveAll(products).stream().map(ProductEntity::getId).toList();
+    }
+
+    // onProgress recibe siempre la misma instancia: se copia cada avance
+    private static BulkDeleteProgressDto copy(BulkDeleteProgressDto source) {
+        BulkDeleteProgressDto copy = new BulkDeleteProgressDto();
+        copy.chunk = source.chunk;
+        copy.deletedInChunk = source.deletedInChunk;
+        copy.totalDeleted = source.totalDeleted;
+        copy.done = source.done;
+        return copy;
+    }
+}
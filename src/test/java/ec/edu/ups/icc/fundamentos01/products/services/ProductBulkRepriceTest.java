@@ -0,0 +1,106 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkRepriceDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkRepriceResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductBulkRepriceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Cada prueba trabaja con un dueño propio: el filtro userId aísla sus productos de los datos iniciales
+    private UserEntity owner;
+    private Long cheapId;
+    private Long expensiveId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        owner = new UserEntity();
+        owner.setName("Reprice " + suffix);
+        owner.setEmail("reprice-" + suffix + "@email.com");
+        owner.setPassword("password123");
+        userRepository.save(owner);
+
+        cheapId = saveProduct("Cheap " + suffix, 10.0);
+        expensiveId = saveProduct("Expensive " + suffix, 20.0);
+    }
+
+    @Test
+    void percentageRepricesEveryMatchingRowAndSetsUpdatedAt() {
+        LocalDateTime before = LocalDateTime.now();
+        BulkRepriceDto dto = new BulkRepriceDto();
+        dto.percentage = 10.0;
+        dto.userId = owner.getId();
+
+        BulkRepriceResponseDto result = productService.bulkReprice(dto);
+
+        assertThat(result.affectedRows).isEqualTo(2);
+        assertThat(result.chunks).isEqualTo(1);
+        ProductEntity cheap = productRepository.findById(cheapId).orElseThrow();
+        ProductEntity expensive = productRepository.findById(expensiveId).orElseThrow();
+        assertThat(cheap.getPrice()).isEqualTo(11.0);
+        assertThat(expensive.getPrice()).isEqualTo(22.0);
+        assertThat(cheap.getUpdatedAt()).isAfterOrEqualTo(before);
+        assertThat(expensive.getUpdatedAt()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void rowsThatWouldEndWithNonPositivePriceAreSkipped() {
+        BulkRepriceDto dto = new BulkRepriceDto();
+        dto.amount = -15.0;
+        dto.userId = owner.getId();
+
+        BulkRepriceResponseDto result = productService.bulkReprice(dto);
+
+        // 10 - 15 quedaría negativo: solo cambia el producto de 20
+        assertThat(result.affectedRows).isEqualTo(1);
+        ProductEntity cheap = productRepository.findById(cheapId).orElseThrow();
+        assertThat(cheap.getPrice()).isEqualTo(10.0);
+        assertThat(cheap.getUpdatedAt()).isNull();
+        assertThat(productRepository.findById(expensiveId).orElseThrow().getPrice()).isEqualTo(5.0);
+    }
+
+    @Test
+    void percentageThatRoundsToZeroIsSkipped() {
+        BulkRepriceDto dto = new BulkRepriceDto();
+        dto.percentage = -99.99;
+        dto.userId = owner.getId();
+
+        BulkRepriceResponseDto result = productService.bulkReprice(dto);
+
+        // 10 * 0.0001 y 20 * 0.0001 redondean a 0.00
+        assertThat(result.affectedRows).isZero();
+        assertThat(productRepository.findById(cheapId).orElseThrow().getPrice()).isEqualTo(10.0);
+        assertThat(productRepository.findById(expensiveId).orElseThrow().getPrice()).isEqualTo(20.0);
+    }
+
+    private Long saveProduct(String name, double price) {
+        ProductEntity product = new ProductEntity();
+        product.setName(name);
+        product.setDescription("Producto de prueba");
+        product.setPrice(price);
+        product.setOwner(owner);
+        return productRepository.save(product).getId();
+    }
+}
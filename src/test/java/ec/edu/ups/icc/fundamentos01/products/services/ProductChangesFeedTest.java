@@ -0,0 +1,111 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductChangeDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductChangesResponseDto;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sin ventana de asentamiento: los cambios recién confirmados se entregan de inmediato
+@SpringBootTest(properties = "app.changes.settle-window=0s")
+class ProductChangesFeedTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private String suffix;
+    private UserEntity owner;
+    private CategoryEntity category;
+    private long cursor;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString();
+        owner = new UserEntity();
+        owner.setName("Changes " + suffix);
+        owner.setEmail("changes-" + suffix + "@email.com");
+        owner.setPassword("password123");
+        userRepository.save(owner);
+
+        category = new CategoryEntity();
+        category.setName("Changes " + suffix);
+        category.setDescription("Categoría de prueba");
+        categoryRepository.save(category);
+
+        // El feed se lee desde el final: solo cuentan los cambios de cada prueba
+        ProductChangesResponseDto page;
+        cursor = 0;
+        do {
+            page = productService.findChanges(cursor, 1000);
+            cursor = page.nextCursor;
+        } while (page.hasMore);
+    }
+
+    @Test
+    void pagesFollowTheCursorAndDeletesArriveAsTombstones() {
+        Long deleted = create("Uno");
+        Long second = create("Dos");
+        Long third = create("Tres");
+        productService.delete(deleted);
+
+        // Página 1: UPSERT(uno), UPSERT(dos); el de uno se omite porque ya fue borrado
+        ProductChangesResponseDto first = productService.findChanges(cursor, 2);
+        assertThat(first.hasMore).isTrue();
+        assertThat(first.changes).extracting(c -> c.productId).containsExactly(second);
+        assertThat(first.changes.get(0).type).isEqualTo("UPSERT");
+        assertThat(first.changes.get(0).product.id).isEqualTo(second);
+
+        // Página 2: UPSERT(tres) y la lápida de uno
+        ProductChangesResponseDto next = productService.findChanges(first.nextCursor, 2);
+        assertThat(next.hasMore).isFalse();
+        assertThat(next.changes).extracting(c -> c.productId).containsExactly(third, deleted);
+        ProductChangeDto tombstone = next.changes.get(1);
+        assertThat(tombstone.type).isEqualTo("DELETE");
+        assertThat(tombstone.product).isNull();
+        assertThat(next.nextCursor).isGreaterThan(first.nextCursor);
+
+        // Sin cambios nuevos el cursor no avanza
+        ProductChangesResponseDto empty = productService.findChanges(next.nextCursor, 2);
+        assertThat(empty.changes).isEmpty();
+        assertThat(empty.hasMore).isFalse();
+        assertThat(empty.nextCursor).isEqualTo(next.nextCursor);
+    }
+
+    @Test
+    void onlyTheLatestChangeOfEachProductIsReturnedWithinAPage() {
+        Long id = create("Uno");
+        productService.delete(id);
+
+        ProductChangesResponseDto page = productService.findChanges(cursor, 10);
+
+        assertThat(page.changes).extracting(c -> c.type).containsExactly("DELETE");
+        assertThat(page.changes.get(0).productId).isEqualTo(id);
+    }
+
+    private Long create(String name) {
+        CreateProductDto dto = new CreateProductDto();
+        dto.name = name + " " + suffix;
+        dto.price = 10.0;
+        dto.description = "Producto de prueba";
+        dto.userId = owner.getId();
+        dto.categoryIds = Set.of(category.getId());
+        return productService.create(dto).id;
+    }
+}
@@ -0,0 +1,96 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import ec.edu.ups.icc.fundamentos01.categories.entities.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductPartialUpdateCategoriesTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Long first;
+    private Long second;
+    private Long third;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        UserEntity owner = new UserEntity();
+        owner.setName("Patch " + suffix);
+        owner.setEmail("patch-" + suffix + "@email.com");
+        owner.setPassword("password123");
+        userRepository.save(owner);
+
+        first = saveCategory("Primera " + suffix);
+        second = saveCategory("Segunda " + suffix);
+        third = saveCategory("Tercera " + suffix);
+
+        CreateProductDto dto = new CreateProductDto();
+        dto.name = "Patch " + suffix;
+        dto.price = 10.0;
+        dto.description = "Producto de prueba";
+        dto.userId = owner.getId();
+        dto.categoryIds = Set.of(first, second);
+        productId = productService.create(dto).id;
+    }
+
+    @Test
+    void patchAddsAndRemovesCategories() {
+        PartialUpdateProductDto dto = new PartialUpdateProductDto();
+        dto.setCategoryIds(Set.of(second, third));
+
+        ProductResponseDto response = productService.partialUpdate(productId, dto);
+
+        assertThat(response.categories).extracting(c -> c.id).containsExactlyInAnyOrder(second, third);
+        assertThat(productRepository.findIdsByCategoryId(first, Limit.unlimited())).doesNotContain(productId);
+        assertThat(productRepository.findIdsByCategoryId(second, Limit.unlimited())).contains(productId);
+        assertThat(productRepository.findIdsByCategoryId(third, Limit.unlimited())).contains(productId);
+        assertThat(productService.findById(productId).categories)
+                .extracting(c -> c.id).containsExactlyInAnyOrder(second, third);
+    }
+
+    @Test
+    void patchWithoutCategoriesKeepsThem() {
+        PartialUpdateProductDto dto = new PartialUpdateProductDto();
+        dto.setPrice(12.0);
+
+        ProductResponseDto response = productService.partialUpdate(productId, dto);
+
+        assertThat(response.price).isEqualTo(12.0);
+        assertThat(response.categories).extracting(c -> c.id).containsExactlyInAnyOrder(first, second);
+    }
+
+    private Long saveCategory(String name) {
+        CategoryEntity category = new CategoryEntity();
+        category.setName(name);
+        category.setDescription("Categoría de prueba");
+        return categoryRepository.save(category).getId();
+    }
+}
@@ -0,0 +1,87 @@
+package ec.edu.ups.icc.fundamentos01.streaming;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogEventBroadcasterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch neverReads = new CountDownLatch(1);
+    private final List<TestEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Un solo hilo de envío: si el cliente lento lo retuviera, el rápido no recibiría nada
+    private final CatalogEventBroadcaster broadcaster = new CatalogEventBroadcaster(
+            JsonMapper.builder().build(), registry, 16, "drop-oldest",
+            Duration.ofMinutes(1), 1, Duration.ofMillis(200), Duration.ofMinutes(1)) {
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            TestEmitter emitter = new TestEmitter(emitters.isEmpty());
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        neverReads.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedAndDoesNotBlockOthers() throws Exception {
+        broadcaster.subscribe(null);
+        broadcaster.subscribe(null);
+        TestEmitter slow = emitters.get(0);
+        TestEmitter fast = emitters.get(1);
+
+        broadcaster.onCatalogEvent(CatalogEvent.of(CatalogEvent.PRODUCT, CatalogEvent.UPDATED, List.of(1L), null));
+
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        // heartbeat inicial + evento
+        assertThat(fast.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("sse.subscribers.disconnected").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("sse.subscribers").gauge().value()).isEqualTo(1.0);
+        assertThat(fast.completed.getCount()).isEqualTo(1);
+    }
+
+    private final class TestEmitter extends SseEmitter {
+
+        private final boolean slow;
+        private final CountDownLatch received = new CountDownLatch(2);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private TestEmitter(boolean slow) {
+            this.slow = slow;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (slow) {
+                try {
+                    neverReads.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("envío interrumpido", e);
+                }
+            }
+            received.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}